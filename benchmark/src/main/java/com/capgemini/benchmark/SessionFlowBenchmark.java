@@ -0,0 +1,149 @@
+package com.capgemini.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load driver for comparing the platform-thread and virtual-thread modes of the session service.
+ * Each flow runs create -> join -> submit (x2) -> end against a running instance.
+ *
+ * Run it once per mode and compare the logged numbers:
+ *
+ *   mvn -pl session-service spring-boot:run                                          (platform threads)
+ *   mvn -Pjava21 -pl session-service spring-boot:run -Dspring-boot.run.profiles=virtual-threads
+ *
+ *   mvn -Pbench -pl benchmark -am compile exec:java \
+ *       -Dbench.initiator={initiatorUserId} -Dbench.member={memberUserId} \
+ *       [-Dbench.url=http://localhost:8082] [-Dbench.concurrency=200] [-Dbench.flows=2000]
+ */
+public class SessionFlowBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionFlowBenchmark.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+    private final String initiatorUserId;
+    private final String memberUserId;
+
+    SessionFlowBenchmark(String baseUrl, String initiatorUserId, String memberUserId) {
+        this.baseUrl = baseUrl;
+        this.initiatorUserId = initiatorUserId;
+        this.memberUserId = memberUserId;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3 || isBlank(args[1]) || isBlank(args[2])) {
+            throw new IllegalArgumentException(
+                    "Usage: SessionFlowBenchmark <baseUrl> <initiatorUserId> <memberUserId> [concurrency] [flows]");
+        }
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int flows = args.length > 4 ? Integer.parseInt(args[4]) : 2000;
+
+        SessionFlowBenchmark benchmark = new SessionFlowBenchmark(args[0], args[1], args[2]);
+
+        // Warm-up: JIT, connection pools and the user lookup cache
+        log.info("Warming up against {}", args[0]);
+        benchmark.run(Math.min(concurrency, 20), Math.min(flows, 100));
+        benchmark.run(concurrency, flows).log(concurrency);
+    }
+
+    // exec:java passes empty <argument>s as null
+    private static boolean isBlank(String arg) {
+        return arg == null || arg.isBlank();
+    }
+
+    Result run(int concurrency, int flows) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(flows));
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(flows);
+        for (int i = 0; i < flows; i++) {
+            futures.add(executor.submit(() -> {
+                long flowStart = System.nanoTime();
+                try {
+                    runFlow();
+                    latencies.add(System.nanoTime() - flowStart);
+                } catch (Exception e) {
+                    log.debug("Flow failed: {}", e.getMessage());
+                    failures.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        return new Result(flows, failures.get(), elapsed, new ArrayList<>(latencies));
+    }
+
+    private void runFlow() throws Exception {
+        JsonNode session = post("/api/sessions",
+                "{\"invitedUserIds\":[\"" + initiatorUserId + "\",\"" + memberUserId + "\"]}", 201);
+        String sessionId = session.get("sessionId").asText();
+
+        post("/api/sessions/" + sessionId + "/join", "{\"userId\":\"" + memberUserId + "\"}", 200);
+        post("/api/sessions/" + sessionId + "/submit",
+                "{\"restaurantName\":\"Bench Pizza\",\"submittedByUserId\":\"" + initiatorUserId + "\"}", 201);
+        post("/api/sessions/" + sessionId + "/submit",
+                "{\"restaurantName\":\"Bench Sushi\",\"submittedByUserId\":\"" + memberUserId + "\"}", 201);
+        post("/api/sessions/" + sessionId + "/end", "{\"userId\":\"" + initiatorUserId + "\"}", 200);
+    }
+
+    private JsonNode post(String path, String body, int expectedStatus) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(path + " returned " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    record Result(int flows, int failures, long elapsedNanos, List<Long> latencies) {
+
+        void log(int concurrency) {
+            Collections.sort(latencies);
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            log.info("concurrency={} flows={} failures={} time={}s throughput={} flows/s",
+                    concurrency, flows, failures, String.format("%.2f", seconds),
+                    String.format("%.1f", (flows - failures) / seconds));
+            log.info("latency p50={}ms p95={}ms p99={}ms max={}ms",
+                    percentile(0.50), percentile(0.95), percentile(0.99), percentile(1.0));
+        }
+
+        private long percentile(double p) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.size() - 1, Math.ceil(p * latencies.size()) - 1);
+            return latencies.get(Math.max(index, 0)) / 1_000_000;
+        }
+    }
+}
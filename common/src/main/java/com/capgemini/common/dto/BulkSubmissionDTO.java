@@ -0,0 +1,25 @@
+package com.capgemini.common.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Several restaurants submitted to a session by one user in a single request.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkSubmissionDTO {
+
+    @NotBlank(message = "Submitting user is required")
+    private String submittedByUserId;
+
+    @NotEmpty(message = "At least one restaurant is required")
+    private List<@Valid RestaurantSubmissionDTO> restaurants;
+}
@@ -20,4 +20,8 @@ public class SessionDTO {
     private RestaurantSubmissionDTO selectedRestaurant;
     private LocalDateTime createdAt;
     private LocalDateTime endedAt;
+    private long version; // Increases with every change; pass as sinceVersion to fetch only changes
+    private int participantCount;
+    private int submissionCount;
+    private LocalDateTime deadline; // Optional; the session is ended automatically at this time
 }
\ No newline at end of file
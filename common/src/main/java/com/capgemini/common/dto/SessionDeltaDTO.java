@@ -0,0 +1,27 @@
+package com.capgemini.common.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Changes of a session since a version the client already has.
+ * Only participants and submissions added after sinceVersion are listed;
+ * status, selectedRestaurant and endedAt always reflect the current state.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionDeltaDTO {
+    private String sessionId;
+    private long sinceVersion;
+    private long version;
+    private String status; // ACTIVE, ENDED
+    private List<String> addedParticipantIds;
+    private List<RestaurantSubmissionDTO> addedSubmissions;
+    private RestaurantSubmissionDTO selectedRestaurant;
+    private LocalDateTime endedAt;
+}
@@ -0,0 +1,44 @@
+package com.capgemini.common.persistence;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered identifiers in the UUID version 7 layout: 48 bits of Unix milliseconds followed by
+ * random bits. New keys land at the end of B-tree indexes instead of at random positions.
+ *
+ * Each thread has its own SecureRandom, so generating identifiers never contends on a shared lock.
+ */
+public final class Uuids {
+
+    /** Matches no row: never produced by version 4 or version 7 generation. */
+    public static final UUID NIL = new UUID(0L, 0L);
+
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    private Uuids() {
+    }
+
+    public static UUID timeOrdered() {
+        SecureRandom random = RANDOM.get();
+        long millis = System.currentTimeMillis();
+        long mostSigBits = (millis << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Parses an identifier received from a client. Malformed values map to NIL, so lookups
+     * find nothing and callers report the usual "not found" instead of a conversion error.
+     */
+    public static UUID parseOrNil(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return NIL;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.capgemini.sessionservice.client;
+
+import com.capgemini.common.dto.UserDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL based cache in front of the User Service lookups.
+ * Users that were not found (404) are cached as empty entries with a shorter TTL.
+ * Hit/miss/eviction counters are exported as "cache.*" meters.
+ *
+ * Entries are futures, so concurrent lookups of the same user share one remote call
+ * and callers never block on the cache itself.
+ */
+@Component
+@Slf4j
+public class UserLookupCache {
+
+    private final boolean enabled;
+    private final AsyncCache<String, Optional<UserDTO>> users;
+    private final AsyncCache<String, Boolean> initiatePermissions;
+
+    @Autowired
+    public UserLookupCache(MeterRegistry meterRegistry,
+                           @Value("${user.service.cache.enabled:true}") boolean enabled,
+                           @Value("${user.service.cache.maximum-size:10000}") long maximumSize,
+                           @Value("${user.service.cache.ttl:10m}") Duration ttl,
+                           @Value("${user.service.cache.negative-ttl:30s}") Duration negativeTtl) {
+        this(meterRegistry, enabled, maximumSize, ttl, negativeTtl, Ticker.systemTicker());
+    }
+
+    // Tests pass a controllable ticker to step over the TTLs
+    UserLookupCache(MeterRegistry meterRegistry, boolean enabled, long maximumSize,
+                    Duration ttl, Duration negativeTtl, Ticker ticker) {
+        this.enabled = enabled;
+
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new FoundOrMissingExpiry(ttl, negativeTtl))
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync();
+
+        this.initiatePermissions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, users.synchronous(), "user-service.users");
+        CaffeineCacheMetrics.monitor(meterRegistry, initiatePermissions.synchronous(), "user-service.can-initiate");
+
+        log.info("User lookup cache {} (max size {}, ttl {}, negative ttl {})",
+                enabled ? "enabled" : "disabled", maximumSize, ttl, negativeTtl);
+    }
+
+    /**
+     * Returns the cached user, loading it on a miss.
+     * The loader emits an empty Optional for unknown users and fails for any other problem;
+     * failed loads are dropped from the cache, so only real answers from the User Service are kept.
+     */
+    public Mono<Optional<UserDTO>> getUser(String userId, Function<String, Mono<Optional<UserDTO>>> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+        return Mono.fromFuture(() -> users.get(userId, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    /**
+     * Bulk variant of {@link #getUser}: only the IDs missing from the cache are handed to the loader,
+     * in a single call. The loader returns an entry (possibly empty) for every ID it could
+     * resolve; IDs it leaves out are not cached and are missing from the result.
+     */
+    public Mono<Map<String, Optional<UserDTO>>> getUsers(Collection<String> userIds,
+                                                         Function<Set<String>, Mono<Map<String, Optional<UserDTO>>>> loader) {
+        if (!enabled) {
+            return loader.apply(new LinkedHashSet<>(userIds));
+        }
+        return Mono.fromFuture(() -> users.getAll(userIds,
+                (missingIds, executor) -> loader.apply(new LinkedHashSet<>(missingIds)).toFuture()), true);
+    }
+
+    /**
+     * Returns the cached initiate permission, loading it on a miss.
+     * A user already cached by {@link #getUser} answers this without a remote call.
+     */
+    public Mono<Boolean> canInitiate(String userId, Function<String, Mono<Boolean>> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+
+        Optional<UserDTO> cachedUser = completedUser(userId);
+        if (cachedUser != null && cachedUser.isPresent()) {
+            return Mono.just(cachedUser.get().isCanInitiateSession());
+        }
+        return Mono.fromFuture(() -> initiatePermissions.get(userId,
+                (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    /**
+     * True when the User Service recently answered 404 for this user.
+     */
+    public boolean isKnownMissing(String userId) {
+        if (!enabled) {
+            return false;
+        }
+        Optional<UserDTO> cachedUser = completedUser(userId);
+        return cachedUser != null && cachedUser.isEmpty();
+    }
+
+    public void markMissing(String userId) {
+        if (enabled) {
+            users.put(userId, CompletableFuture.completedFuture(Optional.empty()));
+        }
+    }
+
+    public void invalidate(String userId) {
+        users.synchronous().invalidate(userId);
+        initiatePermissions.synchronous().invalidate(userId);
+    }
+
+    private Optional<UserDTO> completedUser(String userId) {
+        CompletableFuture<Optional<UserDTO>> cached = users.getIfPresent(userId);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return null;
+        }
+        return cached.join();
+    }
+
+    /**
+     * Found users live for the normal TTL, missing users only for the negative TTL.
+     */
+    private static class FoundOrMissingExpiry implements Expiry<String, Optional<UserDTO>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        FoundOrMissingExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Optional<UserDTO> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<UserDTO> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<UserDTO> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,63 +1,195 @@
 package com.capgemini.sessionservice.client;
 
 import com.capgemini.common.dto.UserDTO;
+import com.capgemini.common.exception.ServiceUnavailableException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @Component
 //@RequiredArgsConstructor
 @Slf4j
 public class UserServiceClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private static final String SERVICE_NAME = "user-service";
 
-    @Value("${user.service.url:http://localhost:8081}")
-    private String userServiceUrl;
+    private final WebClient userServiceWebClient;
+    private final UserLookupCache userLookupCache;
 
-    public UserServiceClient(WebClient.Builder webClientBuilder) {
-        this.webClientBuilder = webClientBuilder;
+    @Value("${user.service.batch-size:100}")
+    private int batchSize;
+
+    @Value("${user.service.batch-concurrency:4}")
+    private int batchConcurrency;
+
+    public UserServiceClient(WebClient userServiceWebClient, UserLookupCache userLookupCache) {
+        this.userServiceWebClient = userServiceWebClient;
+        this.userLookupCache = userLookupCache;
     }
     public boolean canUserInitiateSession(String userId) {
-        try {
-            Boolean canInitiate = webClientBuilder.build()
-                    .get()
-                    .uri(userServiceUrl + "/api/users/{userId}/can-initiate", userId)
-                    .retrieve()
-                    .bodyToMono(Boolean.class)
-                    .block();
-
-            return canInitiate != null && canInitiate;
-        } catch (Exception e) {
-            log.error("Error checking user permissions: {}", e.getMessage());
-            throw new RuntimeException("Unable to verify user permissions", e);
-        }
-
+        return Boolean.TRUE.equals(canUserInitiateSessionAsync(userId).block());
     }
 
 
 
     public UserDTO getUserById(String userId) {
         try {
-            // 3. Use .build().get() as requested
-            return webClientBuilder.build()
-                    .get()
-                    .uri(userServiceUrl + "/api/users/{userId}", userId)
-                    .retrieve()
-                    .onStatus(status -> status.value() == 404, response -> Mono.empty())
-                    .bodyToMono(UserDTO.class)
-                    .timeout(Duration.ofSeconds(2))
-                    .block();
+            return getUserByIdAsync(userId).block();
         } catch (Exception e) {
-            log.error("Failed to retrieve user {} from User Service: {}", userId, e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Resolves many users at once. Cached users are answered locally, the rest are fetched
+     * through the batch endpoint in chunks of user.service.batch-size IDs.
+     * Unknown users are left out of the returned map; if the User Service could not answer
+     * for some of the IDs this fails with {@link ServiceUnavailableException}.
+     */
+    public Map<String, UserDTO> getUsersByIds(Collection<String> userIds) {
+        return getUsersByIdsAsync(userIds).block();
+    }
+
+    /**
+     * Non-blocking variant of {@link #canUserInitiateSession(String)}.
+     */
+    public Mono<Boolean> canUserInitiateSessionAsync(String userId) {
+        if (userLookupCache.isKnownMissing(userId)) {
+            log.error("Error checking user permissions: user {} not found (cached)", userId);
+            return Mono.error(new RuntimeException("Unable to verify user permissions"));
+        }
+
+        return userLookupCache.canInitiate(userId, this::fetchCanInitiate)
+                .onErrorMap(e -> {
+                    log.error("Error checking user permissions: {}", e.getMessage());
+                    return new RuntimeException("Unable to verify user permissions", e);
+                });
+    }
+
+    /**
+     * Non-blocking variant of {@link #getUserById(String)}.
+     * Completes empty when the user does not exist and fails with
+     * {@link ServiceUnavailableException} when the User Service cannot answer.
+     */
+    public Mono<UserDTO> getUserByIdAsync(String userId) {
+        return userLookupCache.getUser(userId, this::fetchUser)
+                .flatMap(Mono::justOrEmpty)
+                .onErrorMap(e -> {
+                    log.error("Failed to retrieve user {} from User Service: {}", userId, e.getMessage());
+                    return new ServiceUnavailableException(SERVICE_NAME);
+                });
+    }
+
+    /**
+     * Non-blocking variant of {@link #getUsersByIds(Collection)}.
+     */
+    public Mono<Map<String, UserDTO>> getUsersByIdsAsync(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        List<String> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        return userLookupCache.getUsers(ids, this::fetchUsers)
+                .flatMap(users -> {
+                    // IDs of failed chunks have no entry; they are neither found nor missing
+                    if (users.size() < ids.size()) {
+                        return Mono.error(new IllegalStateException(
+                                (ids.size() - users.size()) + " user IDs could not be resolved"));
+                    }
+                    Map<String, UserDTO> result = new LinkedHashMap<>();
+                    users.forEach((userId, user) -> user.ifPresent(found -> result.put(userId, found)));
+                    return Mono.just(result);
+                })
+                .onErrorMap(e -> {
+                    log.error("Failed to retrieve {} users from User Service: {}", ids.size(), e.getMessage());
+                    return new ServiceUnavailableException(SERVICE_NAME);
+                });
+    }
+
+    private Mono<Boolean> fetchCanInitiate(String userId) {
+        return userServiceWebClient
+                .get()
+                .uri("/api/users/{userId}/can-initiate", userId)
+                .retrieve()
+                .bodyToMono(Boolean.class)
+                .map(Boolean.TRUE::equals)
+                .defaultIfEmpty(false)
+                .doOnError(WebClientResponseException.NotFound.class, e -> userLookupCache.markMissing(userId));
+    }
+
+    /**
+     * Empty result means the User Service answered 404; any other failure is propagated
+     * so that it is not cached as a missing user.
+     */
+    private Mono<Optional<UserDTO>> fetchUser(String userId) {
+        return userServiceWebClient
+                .get()
+                .uri("/api/users/{userId}", userId)
+                .retrieve()
+                .onStatus(status -> status.value() == 404, response -> Mono.empty())
+                .bodyToMono(UserDTO.class)
+                .timeout(Duration.ofSeconds(2))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    /**
+     * A failed chunk is logged and left out of the result, so the users of the other chunks
+     * are still cached and the failed IDs are not cached as missing.
+     */
+    private Mono<Map<String, Optional<UserDTO>>> fetchUsers(Set<String> userIds) {
+        List<String> ids = new ArrayList<>(userIds);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            chunks.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+
+        return Flux.fromIterable(chunks)
+                .flatMap(chunk -> fetchChunk(chunk)
+                        .onErrorResume(e -> {
+                            log.warn("Batch lookup of {} users failed: {}", chunk.size(), e.getMessage());
+                            return Mono.just(Map.of());
+                        }), batchConcurrency)
+                .collect(HashMap<String, Optional<UserDTO>>::new, Map::putAll)
+                .map(result -> (Map<String, Optional<UserDTO>>) result);
+    }
+
+    private Mono<Map<String, Optional<UserDTO>>> fetchChunk(List<String> chunk) {
+        return userServiceWebClient
+                .post()
+                .uri("/api/users/batch")
+                .bodyValue(chunk)
+                .retrieve()
+                .bodyToFlux(UserDTO.class)
+                .timeout(Duration.ofSeconds(2))
+                .collectList()
+                .map(users -> {
+                    Map<String, Optional<UserDTO>> result = new HashMap<>();
+                    users.forEach(user -> result.put(user.getUserId(), Optional.of(user)));
+                    chunk.forEach(userId -> result.putIfAbsent(userId, Optional.empty()));
+                    return result;
+                });
+    }
+
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.capgemini.sessionservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Thread usage of the session service.
+ * With spring.threads.virtual.enabled (Java 21, "virtual-threads" profile) Spring Boot runs
+ * Tomcat request handling and the @Async task executor on virtual threads.
+ * The DB scheduler below stays on a bounded set of platform threads in both modes: Hibernate and
+ * JDBC code still synchronizes internally, and running it there keeps it from pinning carrier
+ * threads and caps JDBC concurrency at the connection pool size.
+ * Only the transactional part of create, join and submit runs on it. End, the session and
+ * submission reads, the history and the streaming export still run JDBC on the request thread,
+ * a virtual one in that mode; only the connection pool bounds them, and pinning there is merely
+ * reported (-Djdk.tracePinnedThreads in the java21 Maven profile), not prevented.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ExecutionConfig {
+
+    /**
+     * Scheduler for the blocking JPA work of the reactive request pipeline.
+     * Sized to the connection pool so that waiting requests queue here
+     * instead of holding Tomcat threads or piling up on the pool.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler dbScheduler(
+            @Value("${session.db-scheduler.max-threads:10}") int maxThreads,
+            @Value("${session.db-scheduler.max-queued-tasks:10000}") int maxQueuedTasks) {
+        return Schedulers.newBoundedElastic(maxThreads, maxQueuedTasks, "session-db");
+    }
+}
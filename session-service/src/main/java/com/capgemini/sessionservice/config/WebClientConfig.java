@@ -1,10 +1,20 @@
 package com.capgemini.sessionservice.config;
 
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
+@Slf4j
 public class WebClientConfig {
 
     @Bean
@@ -12,10 +22,58 @@ public class WebClientConfig {
         return WebClient.builder();
     }
 
-}
+    /**
+     * Connection pool shared by all calls to the User Service.
+     * With metrics enabled Reactor Netty exports the pool gauges
+     * (reactor.netty.connection.provider.active/idle/pending.connections) to Micrometer.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider userServiceConnectionProvider(
+            @Value("${user.service.http.pool.max-connections:200}") int maxConnections,
+            @Value("${user.service.http.pool.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${user.service.http.pool.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${user.service.http.pool.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${user.service.http.pool.max-life-time:5m}") Duration maxLifeTime,
+            @Value("${user.service.http.pool.evict-in-background:30s}") Duration evictInBackground) {
+        return ConnectionProvider.builder("user-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Single long-lived client for the User Service, built once on top of the shared pool.
+     */
+    @Bean
+    public WebClient userServiceWebClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider userServiceConnectionProvider,
+            @Value("${user.service.url:http://localhost:8081}") String userServiceUrl,
+            @Value("${user.service.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${user.service.http.response-timeout:2s}") Duration responseTimeout,
+            @Value("${user.service.http.h2c:false}") boolean h2c) {
+        HttpClient httpClient = HttpClient.create(userServiceConnectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
 
+        if (h2c) {
+            // HTTP/2 cleartext multiplexes the calls over a few connections; falls back to HTTP/1.1
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
 
-    /*@Bean
-    public WebClient webClient(WebClient.Builder webClientBuilder) {
-        return webClientBuilder.build();
-    }*/
\ No newline at end of file
+        log.info("User Service client: {} (h2c {})", userServiceUrl, h2c ? "enabled" : "disabled");
+
+        return webClientBuilder.clone()
+                .baseUrl(userServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+}
@@ -1,15 +1,37 @@
 package com.capgemini.sessionservice.config;
 
+import com.capgemini.sessionservice.websocket.SlowConsumerGuard;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final SlowConsumerGuard slowConsumerGuard;
+
+    @Value("${websocket.transport.send-time-limit:10s}")
+    private Duration sendTimeLimit;
+
+    @Value("${websocket.transport.send-buffer-size-limit:512KB}")
+    private DataSize sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:64KB}")
+    private DataSize messageSizeLimit;
+
+    public WebSocketConfig(SlowConsumerGuard slowConsumerGuard) {
+        this.slowConsumerGuard = slowConsumerGuard;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple memory-based message broker
@@ -31,4 +53,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();  // Enable SockJS fallback for browsers without WebSocket
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Per-connection limits: a client that cannot take a frame within the time limit,
+        // or lets the send buffer grow past its limit, is disconnected
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit((int) sendBufferSizeLimit.toBytes())
+                .setMessageSizeLimit((int) messageSizeLimit.toBytes())
+                .addDecoratorFactory(slowConsumerGuard::decorate);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Sheds LOW/NORMAL notifications for connections with a large outbound backlog
+        registration.interceptors(slowConsumerGuard);
+    }
 }
\ No newline at end of file
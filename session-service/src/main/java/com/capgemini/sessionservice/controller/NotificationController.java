@@ -1,10 +1,13 @@
 package com.capgemini.sessionservice.controller;
 
 import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.dto.NotificationReplayDTO;
 import com.capgemini.sessionservice.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
@@ -92,4 +95,30 @@ public class NotificationController {
         notification.setUserId(principal.getName());
         return notification;
     }
-}
\ No newline at end of file
+
+    /**
+     * REST endpoint for reconnecting clients: session notifications after a sequence number
+     * of the epoch the client last saw. If resyncRequired is true, reload the session instead.
+     */
+    @GetMapping("/session/{sessionId}")
+    public ResponseEntity<NotificationReplayDTO> getSessionNotifications(
+            @PathVariable String sessionId,
+            @RequestParam(required = false) String epoch,
+            @RequestParam(defaultValue = "0") long afterSequence) {
+        return ResponseEntity.ok(notificationService.getSessionNotificationsAfter(sessionId, epoch, afterSequence));
+    }
+
+    /**
+     * WebSocket variant of the catch-up call
+     * Example: Client sends the last seen sequence to /app/session/{sessionId}/replay, with its
+     * epoch in the "epoch" header, and receives the result on /user/queue/replay
+     */
+    @MessageMapping("/session/{sessionId}/replay")
+    @SendToUser("/queue/replay")
+    public NotificationReplayDTO replaySessionNotifications(@DestinationVariable String sessionId,
+                                                            @Header(name = "epoch", required = false) String epoch,
+                                                            @Payload(required = false) Long afterSequence) {
+        return notificationService.getSessionNotificationsAfter(sessionId, epoch,
+                afterSequence != null ? afterSequence : 0);
+    }
+}
@@ -1,10 +1,17 @@
 
 package com.capgemini.sessionservice.controller;
 
+import com.capgemini.common.dto.BulkSubmissionDTO;
+import com.capgemini.common.dto.CursorPageDTO;
 import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.common.dto.SessionDeltaDTO;
 import com.capgemini.common.dto.RestaurantSubmissionDTO;
 //import com.capgemini.sessionservice.dto.InvitationDTO;
 import com.capgemini.sessionservice.dto.InvitationDTO;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.service.IdempotencyStore;
+import com.capgemini.sessionservice.service.SessionArchiveService;
+import com.capgemini.sessionservice.service.SessionExportService;
 import com.capgemini.sessionservice.service.SessionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,13 +20,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
         import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/sessions")
@@ -29,6 +43,9 @@ import java.util.Map;
 public class SessionController {
 
     private final SessionService sessionService;
+    private final SessionExportService sessionExportService;
+    private final SessionArchiveService sessionArchiveService;
+    private final IdempotencyStore idempotencyStore;
 
     @PostMapping
     @Operation(summary = "Create new session",
@@ -42,7 +59,10 @@ public class SessionController {
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Session creation request with invitee list")
             @RequestBody InvitationDTO request) */
-    public ResponseEntity<SessionDTO> createSession(@RequestBody InvitationDTO request) {
+    public Mono<ResponseEntity<SessionDTO>> createSession(
+            @RequestBody InvitationDTO request,
+            @Parameter(description = "Optional key; retries with the same key get the first result")
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
             //(@RequestBody Map<String, String> request) {
 
       /*  SessionDTO session = sessionService.createSession(
@@ -55,11 +75,13 @@ public class SessionController {
         //java.lang.RuntimeException: User is not authorized to initiate a session
         //SessionDTO session = sessionService.createSession(userId);
 
-        SessionDTO session = sessionService.createSession(
-                request.getInvitedUserIds().get(0),  // First user is initiator
-                request.getInvitedUserIds().subList(1, request.getInvitedUserIds().size())  // Rest are invited
-        );
-        return ResponseEntity.status(HttpStatus.CREATED).body(session);
+        String initiatorUserId = request.getInvitedUserIds().get(0);  // First user is initiator
+        // Scoped per initiator: two users choosing the same key must not get each other's session
+        return idempotencyStore.execute("create:" + initiatorUserId, idempotencyKey, request, () -> sessionService.createSession(
+                initiatorUserId,
+                request.getInvitedUserIds().subList(1, request.getInvitedUserIds().size()),  // Rest are invited
+                request.getDeadline()
+        )).map(session -> ResponseEntity.status(HttpStatus.CREATED).body(session));
     }
 
     @PostMapping("/{sessionId}/join")
@@ -69,13 +91,17 @@ public class SessionController {
             @ApiResponse(responseCode = "404", description = "Session not found"),
             @ApiResponse(responseCode = "400", description = "Cannot join ended session")
     })
-    public ResponseEntity<SessionDTO> joinSession(
+    public Mono<ResponseEntity<SessionDTO>> joinSession(
             @Parameter(description = "ID of the session to join")
             @PathVariable String sessionId,
-            @RequestBody Map<String, String> request) {
+            @RequestBody Map<String, String> request,
+            @Parameter(description = "Optional key; retries with the same key get the first result")
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         String userId = request.get("userId");
-        SessionDTO session = sessionService.joinSession(sessionId, userId);
-        return ResponseEntity.ok(session);
+        // Scoped per user like create: participants may happen to choose the same key
+        return idempotencyStore.execute("join:" + sessionId + ":" + userId, idempotencyKey, request,
+                        () -> sessionService.joinSession(sessionId, userId))
+                .map(ResponseEntity::ok);
     }
 
     @PostMapping("/{sessionId}/submit")
@@ -86,13 +112,38 @@ public class SessionController {
             @ApiResponse(responseCode = "400", description = "Invalid submission or session ended"),
             @ApiResponse(responseCode = "404", description = "Session not found")
     })
-    public ResponseEntity<RestaurantSubmissionDTO> submitRestaurant(
+    public Mono<ResponseEntity<RestaurantSubmissionDTO>> submitRestaurant(
             @Parameter(description = "ID of the session")
             @PathVariable String sessionId,
-            @Valid @RequestBody RestaurantSubmissionDTO submission) {
+            @Valid @RequestBody RestaurantSubmissionDTO submission,
+            @Parameter(description = "Optional key; retries with the same key get the first result")
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         submission.setSessionId(sessionId);
-        RestaurantSubmissionDTO created = sessionService.submitRestaurant(sessionId, submission);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        return idempotencyStore.execute("submit:" + sessionId + ":" + submission.getSubmittedByUserId(),
+                        idempotencyKey, submission,
+                        () -> sessionService.submitRestaurant(sessionId, submission))
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+    }
+
+    @PostMapping("/{sessionId}/submit/bulk")
+    @Operation(summary = "Submit several restaurants",
+            description = "Submit a list of restaurant suggestions for the session in one request")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Restaurants submitted successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid submissions, too many restaurants or session ended"),
+            @ApiResponse(responseCode = "404", description = "Session not found")
+    })
+    public Mono<ResponseEntity<List<RestaurantSubmissionDTO>>> submitRestaurants(
+            @Parameter(description = "ID of the session")
+            @PathVariable String sessionId,
+            @Valid @RequestBody BulkSubmissionDTO request,
+            @Parameter(description = "Optional key; retries with the same key get the first result")
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("submit-bulk:" + sessionId + ":" + request.getSubmittedByUserId(),
+                        idempotencyKey, request,
+                        () -> sessionService.submitRestaurants(sessionId, request.getSubmittedByUserId(),
+                                request.getRestaurants()))
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
     }
 
     @PostMapping("/{sessionId}/end")
@@ -106,35 +157,116 @@ public class SessionController {
     public ResponseEntity<SessionDTO> endSession(
             @Parameter(description = "ID of the session to end")
             @PathVariable String sessionId,
-            @RequestBody Map<String, String> request) {
+            @RequestBody Map<String, String> request,
+            @Parameter(description = "Optional key; retries with the same key get the first result")
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         String userId = request.get("userId");
-        SessionDTO session = sessionService.endSession(sessionId, userId);
+        SessionDTO session = idempotencyStore.executeBlocking("end:" + sessionId + ":" + userId, idempotencyKey, request,
+                () -> sessionService.endSession(sessionId, userId));
         return ResponseEntity.ok(session);
     }
 
     @GetMapping("/{sessionId}")
-    @Operation(summary = "Get session details", description = "Retrieve details of a specific session")
-    public ResponseEntity<SessionDTO> getSession(
+    @Operation(summary = "Get session details",
+            description = "Retrieve details of a specific session. With sinceVersion only the changes " +
+                    "after that version are returned (SessionDeltaDTO), or 304 when there are none")
+    public ResponseEntity<?> getSession(
             @Parameter(description = "ID of the session")
-            @PathVariable String sessionId) {
+            @PathVariable String sessionId,
+            @Parameter(description = "Version the client already has (SessionDTO.version)")
+            @RequestParam(required = false) Long sinceVersion,
+            WebRequest request) {
+        // If-None-Match and sinceVersion are answered from the version alone; the body is only built when it changed
+        Optional<Long> version = sessionService.findSessionVersion(sessionId);
+        if (sinceVersion != null) {
+            if (version.isPresent() && sinceVersion >= version.get()) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(sessionETag(sessionId, version.get()))
+                        .build();
+            }
+            SessionDeltaDTO changes = sessionService.getSessionChanges(sessionId, sinceVersion);
+            return ResponseEntity.ok(changes);
+        }
+
+        if (version.isPresent() && request.checkNotModified(sessionETag(sessionId, version.get()))) {
+            return null;
+        }
+
         SessionDTO session = sessionService.getSession(sessionId);
-        return ResponseEntity.ok(session);
+        return ResponseEntity.ok()
+                .eTag(sessionETag(sessionId, session.getVersion()))
+                .body(session);
     }
 
     @GetMapping
-    @Operation(summary = "Get active sessions", description = "Retrieve all currently active sessions")
-    public ResponseEntity<List<SessionDTO>> getAllActiveSessions() {
-        List<SessionDTO> sessions = sessionService.getAllActiveSessions();
+    @Operation(summary = "Get active sessions",
+            description = "Retrieve currently active sessions, one page at a time (oldest first)")
+    public ResponseEntity<CursorPageDTO<SessionDTO>> getAllActiveSessions(
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer limit) {
+        CursorPageDTO<SessionDTO> sessions = sessionService.getActiveSessions(cursor, limit);
         return ResponseEntity.ok(sessions);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export sessions",
+            description = "Stream all sessions with the given status as NDJSON (one SessionDTO per line) " +
+                    "or as Server-Sent Events, without building the full list in memory")
+    public ResponseEntity<StreamingResponseBody> exportSessions(
+            @Parameter(description = "ACTIVE or ENDED")
+            @RequestParam(defaultValue = "ACTIVE") Session.SessionStatus status,
+            @Parameter(description = "NDJSON or SSE")
+            @RequestParam(defaultValue = "NDJSON") SessionExportService.Format format) {
+        MediaType contentType = format == SessionExportService.Format.SSE
+                ? MediaType.TEXT_EVENT_STREAM
+                : MediaType.APPLICATION_NDJSON;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(out -> sessionExportService.export(status, format, out));
+    }
+
+    @GetMapping("/history/{sessionId}")
+    @Operation(summary = "Get archived session",
+            description = "Retrieve a session that has been moved to the history tables by the archival job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archived session found"),
+            @ApiResponse(responseCode = "404", description = "No archived session with this ID")
+    })
+    public ResponseEntity<SessionDTO> getArchivedSession(
+            @Parameter(description = "ID of the session")
+            @PathVariable String sessionId) {
+        return ResponseEntity.ok(sessionArchiveService.getArchivedSession(sessionId));
+    }
+
     @GetMapping("/{sessionId}/submissions")
     @Operation(summary = "Get session submissions",
-            description = "Retrieve all restaurant submissions for a session")
-    public ResponseEntity<List<RestaurantSubmissionDTO>> getSessionSubmissions(
+            description = "Retrieve the restaurant submissions for a session, one page at a time")
+    public ResponseEntity<CursorPageDTO<RestaurantSubmissionDTO>> getSessionSubmissions(
             @Parameter(description = "ID of the session")
-            @PathVariable String sessionId) {
-        List<RestaurantSubmissionDTO> submissions = sessionService.getSessionSubmissions(sessionId);
-        return ResponseEntity.ok(submissions);
+            @PathVariable String sessionId,
+            @Parameter(description = "nextCursor of the previous page; omit for the first page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at 200)")
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        // Submissions only change together with the session version
+        Optional<Long> version = sessionService.findSessionVersion(sessionId);
+        String eTag = version
+                .map(v -> sessionETag(sessionId, v) + "-" + DigestUtils.md5DigestAsHex((cursor + "|" + limit).getBytes(StandardCharsets.UTF_8)))
+                .orElse(null);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        CursorPageDTO<RestaurantSubmissionDTO> submissions = sessionService.getSessionSubmissions(sessionId, cursor, limit);
+        return eTag != null
+                ? ResponseEntity.ok().eTag(eTag).body(submissions)
+                : ResponseEntity.ok(submissions);
+    }
+
+    private String sessionETag(String sessionId, long version) {
+        return sessionId + "-v" + version;
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -12,4 +13,6 @@ import java.util.List;
 public class InvitationDTO {
     private String sessionId;
     private List<String> invitedUserIds;
+    // Optional: the session is ended automatically at this time (SessionDeadlineScheduler)
+    private LocalDateTime deadline;
 }
\ No newline at end of file
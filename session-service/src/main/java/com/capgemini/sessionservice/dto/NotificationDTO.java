@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -23,6 +25,8 @@ public class NotificationDTO {
     private Map<String, Object> data;
     private NotificationPriority priority;
     private LocalDateTime timestamp;
+    private Long sequence;  // Per-session order on /topic/session/{id}, see SessionReplayBuffer
+    private String epoch;  // Numbering the sequence belongs to; changes per instance and buffer reset
 
     public enum NotificationType {
         // Personal notifications
@@ -122,6 +126,46 @@ public class NotificationDTO {
                 .build();
     }
 
+    /**
+     * Merges several USER_JOINED or RESTAURANT_SUBMITTED notifications of one session into one.
+     * The data carries the latest counts plus the data of every merged notification under "items".
+     */
+    public static NotificationDTO coalesced(String sessionId, NotificationType type, List<NotificationDTO> notifications) {
+        String countKey = type == NotificationType.USER_JOINED ? "totalParticipants" : "totalSubmissions";
+        int latestCount = 0;
+        List<Map<String, Object>> items = new ArrayList<>(notifications.size());
+        for (NotificationDTO notification : notifications) {
+            Map<String, Object> itemData = notification.getData() != null ? notification.getData() : Map.of();
+            items.add(itemData);
+            if (itemData.get(countKey) instanceof Number count) {
+                latestCount = Math.max(latestCount, count.intValue());
+            }
+        }
+
+        int size = notifications.size();
+        String title = type == NotificationType.USER_JOINED ? "Users Joined" : "Restaurants Suggested";
+        String message = type == NotificationType.USER_JOINED
+                ? size + " users joined the session (" + latestCount + " participants)"
+                : size + " restaurants suggested (" + latestCount + " total)";
+
+        return NotificationDTO.builder()
+                .id(generateId())
+                .type(type)
+                .channel("/topic/session/" + sessionId)
+                .sessionId(sessionId)
+                .title(title)
+                .message(message)
+                .priority(NotificationPriority.NORMAL)
+                .timestamp(LocalDateTime.now())
+                .data(Map.of(
+                    "coalesced", true,
+                    "count", size,
+                    countKey, latestCount,
+                    "items", items
+                ))
+                .build();
+    }
+
     public static NotificationDTO sessionEnded(String sessionId, String selectedRestaurant, String address) {
         return NotificationDTO.builder()
                 .id(generateId())
@@ -139,6 +183,48 @@ public class NotificationDTO {
                 .build();
     }
 
+    public static NotificationDTO sessionEndedWithoutSelection(String sessionId) {
+        return NotificationDTO.builder()
+                .id(generateId())
+                .type(NotificationType.SESSION_ENDED)
+                .channel("/topic/session/" + sessionId)
+                .sessionId(sessionId)
+                .title("Session Ended!")
+                .message("The deadline passed without any restaurant suggestions")
+                .priority(NotificationPriority.HIGH)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    public static NotificationDTO sessionEndedWhileIdle(String sessionId) {
+        return NotificationDTO.builder()
+                .id(generateId())
+                .type(NotificationType.SESSION_ENDED)
+                .channel("/topic/session/" + sessionId)
+                .sessionId(sessionId)
+                .title("Session Ended!")
+                .message("The session ended after a long time without activity")
+                .priority(NotificationPriority.HIGH)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    public static NotificationDTO sessionEndingSoon(String sessionId, LocalDateTime deadline) {
+        return NotificationDTO.builder()
+                .id(generateId())
+                .type(NotificationType.SESSION_ENDING_SOON)
+                .channel("/topic/session/" + sessionId)
+                .sessionId(sessionId)
+                .title("Session Ending Soon")
+                .message("A restaurant will be picked at " + deadline.toLocalTime().withNano(0))
+                .priority(NotificationPriority.HIGH)
+                .timestamp(LocalDateTime.now())
+                .data(Map.of(
+                    "deadline", deadline.toString()
+                ))
+                .build();
+    }
+
     public static NotificationDTO systemAnnouncement(String title, String message) {
         return NotificationDTO.builder()
                 .id(generateId())
@@ -0,0 +1,27 @@
+package com.capgemini.sessionservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Session notifications missed by a reconnecting client.
+ * When resyncRequired is true the buffer no longer holds everything after afterSequence
+ * (or the sequence belongs to another epoch) and the client should reload the session
+ * (GET /api/sessions/{id}) instead, then continue from latestSequence of epoch.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationReplayDTO {
+    private String sessionId;
+    private String epoch;
+    private long afterSequence;
+    private long latestSequence;
+    private boolean resyncRequired;
+    private List<NotificationDTO> notifications;
+}
@@ -1,9 +1,17 @@
 package com.capgemini.sessionservice.entity;
 
+import com.capgemini.common.persistence.TimeOrderedId;
+import com.capgemini.common.persistence.UuidStringJavaType;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "restaurant_submissions")
@@ -11,8 +19,11 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class RestaurantSubmission {
+    // Time-ordered, stored as uuid; still a String in DTOs and URLs
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     private String submissionId;
 
     @Column(nullable = false, length = 200)
@@ -27,7 +38,16 @@ public class RestaurantSubmission {
     @Column(nullable = false)
     private String submittedByUserId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_id", nullable = false)
     private Session session;
+
+    // Session version in which this submission was added
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long sessionVersion;
+
+    @Column(nullable = false)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt = LocalDateTime.now();
 }
\ No newline at end of file
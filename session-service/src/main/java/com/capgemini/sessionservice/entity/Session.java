@@ -1,9 +1,15 @@
 package com.capgemini.sessionservice.entity;
 
+import com.capgemini.common.persistence.TimeOrderedId;
+import com.capgemini.common.persistence.UuidStringJavaType;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -15,8 +21,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Session {
+    // Time-ordered, stored as uuid; still a String in DTOs and URLs
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     private String sessionId;
 
     @Column(nullable = false)
@@ -26,16 +35,10 @@ public class Session {
     @Column(nullable = false)
     private SessionStatus status = SessionStatus.ACTIVE;
 
-    @ElementCollection
-    @CollectionTable(name = "session_participants",
-            joinColumns = @JoinColumn(name = "session_id"))
-    @Column(name = "participant_id")
-    private List<String> participantIds = new ArrayList<>();
-
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<RestaurantSubmission> submissions = new ArrayList<>();
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "selected_restaurant_id")
     private RestaurantSubmission selectedRestaurant;
 
@@ -44,7 +47,40 @@ public class Session {
 
     private LocalDateTime endedAt;
 
+    // Optional; SessionDeadlineScheduler warns the session shortly before and ends it at this time
+    private LocalDateTime deadline;
+
+    // Set once SESSION_ENDING_SOON has been sent, by whichever instance claimed it
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean deadlineWarningSent;
+
+    // Last join or submission; ACTIVE sessions idle for too long are ended by SessionArchiveService
+    @Column(nullable = false)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime lastActivityAt = LocalDateTime.now();
+
+    // Bumped by every mutation (join, submit, end); participants (SessionParticipant) and
+    // submissions record the version that added them so clients can fetch only what changed
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
+    // Maintained by the same statement that inserts a participant or submission
+    // (see SessionRepository), so counts never need the collections
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int participantCount;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int submissionCount;
+
     public enum SessionStatus {
         ACTIVE, ENDED
     }
+
+    public long nextVersion() {
+        return ++version;
+    }
 }
\ No newline at end of file
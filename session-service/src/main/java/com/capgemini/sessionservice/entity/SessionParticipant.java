@@ -0,0 +1,52 @@
+package com.capgemini.sessionservice.entity;
+
+import com.capgemini.common.persistence.UuidStringJavaType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A participant of a session and the session version in which they joined.
+ * Rows are only ever inserted (see SessionParticipantRepository#insertIfAbsent);
+ * the primary key on (session_id, participant_id) rejects duplicate joins.
+ */
+@Entity
+@Table(name = "session_participants")
+@IdClass(SessionParticipant.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionParticipant {
+    @Id
+    @Column(name = "session_id", nullable = false)
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    private String sessionId;
+
+    @Id
+    @Column(name = "participant_id", nullable = false)
+    private String participantId;
+
+    @Column(name = "joined_version", nullable = false)
+    @ColumnDefault("0")
+    private long joinedVersion;
+
+    @Column(name = "joined_at")
+    private LocalDateTime joinedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String sessionId;
+        private String participantId;
+    }
+}
@@ -0,0 +1,63 @@
+package com.capgemini.sessionservice.event;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A notification to be delivered once the publishing transaction has committed.
+ * Published through the ApplicationEventPublisher and drained by the NotificationDispatcher.
+ */
+@Getter
+public class NotificationEvent {
+
+    public enum Channel {
+        PERSONAL, SESSION, GLOBAL
+    }
+
+    private final Channel channel;
+    // PERSONAL: user IDs, SESSION: the session ID, GLOBAL: empty
+    private final List<String> recipients;
+    private final NotificationDTO notification;
+    private final long publishedAtNanos;
+
+    private NotificationEvent(Channel channel, List<String> recipients, NotificationDTO notification) {
+        this.channel = channel;
+        this.recipients = recipients;
+        this.notification = notification;
+        this.publishedAtNanos = System.nanoTime();
+    }
+
+    public static NotificationEvent personal(String userId, NotificationDTO notification) {
+        return new NotificationEvent(Channel.PERSONAL, List.of(userId), notification);
+    }
+
+    /**
+     * Same notification for several users, delivered as one queued task.
+     */
+    public static NotificationEvent personal(List<String> userIds, NotificationDTO notification) {
+        return new NotificationEvent(Channel.PERSONAL, List.copyOf(userIds), notification);
+    }
+
+    public static NotificationEvent session(String sessionId, NotificationDTO notification) {
+        return new NotificationEvent(Channel.SESSION, List.of(sessionId), notification);
+    }
+
+    public static NotificationEvent global(NotificationDTO notification) {
+        return new NotificationEvent(Channel.GLOBAL, List.of(), notification);
+    }
+
+    /**
+     * Rebuilds an event received from another instance.
+     */
+    public static NotificationEvent of(Channel channel, List<String> recipients, NotificationDTO notification) {
+        return new NotificationEvent(channel, List.copyOf(recipients), notification);
+    }
+
+    public NotificationDTO.NotificationPriority getPriority() {
+        return notification.getPriority() != null
+                ? notification.getPriority()
+                : NotificationDTO.NotificationPriority.NORMAL;
+    }
+}
@@ -0,0 +1,29 @@
+package com.capgemini.sessionservice.event;
+
+import com.capgemini.common.dto.SessionDTO;
+import lombok.Getter;
+
+/**
+ * Published inside the transaction that changed a session; cached views of the session
+ * are refreshed once it commits.
+ */
+@Getter
+public class SessionChangedEvent {
+
+    private final String sessionId;
+    // Current state if the caller already built it, null to just invalidate
+    private final SessionDTO session;
+
+    private SessionChangedEvent(String sessionId, SessionDTO session) {
+        this.sessionId = sessionId;
+        this.session = session;
+    }
+
+    public static SessionChangedEvent updated(SessionDTO session) {
+        return new SessionChangedEvent(session.getSessionId(), session);
+    }
+
+    public static SessionChangedEvent invalidated(String sessionId) {
+        return new SessionChangedEvent(sessionId, null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.capgemini.sessionservice.relay;
+
+import com.capgemini.sessionservice.event.NotificationEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Single instance mode: the simple broker already reaches every client, nothing to relay.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.relay.type", havingValue = "local", matchIfMissing = true)
+public class LocalNotificationRelay implements NotificationRelay {
+
+    @Override
+    public void publish(NotificationEvent event) {
+    }
+
+    @Override
+    public void onRemoteEvent(Consumer<NotificationEvent> listener) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.capgemini.sessionservice.relay;
+
+import com.capgemini.sessionservice.event.NotificationEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * Forwards notifications to the other session-service instances.
+ * Every instance delivers an event only to the WebSocket clients connected to it,
+ * so a relayed event must be delivered locally on each peer but never relayed again.
+ *
+ * Selected with notification.relay.type: "local" (default, single instance) or "postgres".
+ */
+public interface NotificationRelay {
+
+    /**
+     * Sends a locally published event to the peers.
+     */
+    void publish(NotificationEvent event);
+
+    /**
+     * Registers the callback that delivers events received from peers.
+     */
+    void onRemoteEvent(Consumer<NotificationEvent> listener);
+}
@@ -0,0 +1,192 @@
+package com.capgemini.sessionservice.relay;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.event.NotificationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Relays notifications between instances through Postgres LISTEN/NOTIFY.
+ *
+ * Publishing uses a pooled connection (pg_notify); receiving uses one dedicated connection
+ * outside the pool that LISTENs on the channel. Messages from this instance and notification
+ * IDs already seen are skipped. NOTIFY payloads are limited to 8000 bytes by Postgres;
+ * larger notifications are delivered locally only and counted as oversized.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.relay.type", havingValue = "postgres")
+@Slf4j
+public class PostgresNotificationRelay implements NotificationRelay {
+
+    private static final int MAX_PAYLOAD_BYTES = 8000;
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final String nodeId;
+    private final Cache<String, Boolean> seenIds;
+
+    private final Counter published;
+    private final Counter received;
+    private final Counter duplicates;
+    private final Counter oversized;
+
+    private volatile Consumer<NotificationEvent> listener = event -> { };
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresNotificationRelay(JdbcTemplate jdbcTemplate,
+                                     DataSourceProperties dataSourceProperties,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${notification.relay.postgres.channel:session_notifications}") String channel,
+                                     @Value("${notification.relay.node-id:}") String nodeId,
+                                     @Value("${notification.relay.dedupe-ttl:1m}") Duration dedupeTtl) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification relay channel: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.seenIds = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(dedupeTtl)
+                .build();
+
+        this.published = Counter.builder("notifications.relay.published").register(meterRegistry);
+        this.received = Counter.builder("notifications.relay.received").register(meterRegistry);
+        this.duplicates = Counter.builder("notifications.relay.skipped").tag("reason", "duplicate").register(meterRegistry);
+        this.oversized = Counter.builder("notifications.relay.skipped").tag("reason", "oversized").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "notification-relay-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        log.info("Postgres notification relay started (node {}, channel {})", nodeId, channel);
+    }
+
+    @Override
+    public void onRemoteEvent(Consumer<NotificationEvent> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void publish(NotificationEvent event) {
+        NotificationDTO notification = event.getNotification();
+        if (notification.getId() == null) {
+            notification.setId(UUID.randomUUID().toString());
+        }
+        seenIds.put(notification.getId(), Boolean.TRUE);
+
+        try {
+            String payload = objectMapper.writeValueAsString(new RelayMessage(
+                    nodeId, event.getChannel(), event.getRecipients(), notification));
+            if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                oversized.increment();
+                log.warn("Notification {} too large to relay, delivered on this instance only", notification.getId());
+                return;
+            }
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, channel, payload);
+            published.increment();
+        } catch (Exception e) {
+            log.error("Failed to relay notification {}: {}", notification.getId(), e.getMessage());
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Notification relay connection lost, reconnecting: {}", e.getMessage());
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        try {
+            RelayMessage message = objectMapper.readValue(payload, RelayMessage.class);
+            if (nodeId.equals(message.nodeId())) {
+                return;
+            }
+            if (seenIds.asMap().putIfAbsent(message.notification().getId(), Boolean.TRUE) != null) {
+                duplicates.increment();
+                return;
+            }
+            received.increment();
+            listener.accept(NotificationEvent.of(message.channel(), message.recipients(), message.notification()));
+        } catch (Exception e) {
+            log.error("Failed to handle relayed notification: {}", e.getMessage());
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.join(3000);
+        }
+    }
+
+    record RelayMessage(String nodeId,
+                        NotificationEvent.Channel channel,
+                        List<String> recipients,
+                        NotificationDTO notification) {
+    }
+}
@@ -1,12 +1,36 @@
 package com.capgemini.sessionservice.repository;
 
 import com.capgemini.sessionservice.entity.RestaurantSubmission;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RestaurantSubmissionRepository extends JpaRepository<RestaurantSubmission, String> {
     List<RestaurantSubmission> findBySession_SessionId(String sessionId);
+
+    List<RestaurantSubmission> findBySession_SessionIdAndSessionVersionGreaterThan(String sessionId, long sinceVersion);
+
+    List<RestaurantSubmission> findBySession_SessionIdInOrderBySessionVersion(Collection<String> sessionIds);
+
+    @Query("SELECT r FROM RestaurantSubmission r WHERE r.session.sessionId = :sessionId " +
+            "ORDER BY r.createdAt, r.submissionId")
+    List<RestaurantSubmission> findPageBySessionId(@Param("sessionId") String sessionId, Limit limit);
+
+    /**
+     * Keyset page: submissions after the given (createdAt, submissionId) position.
+     */
+    @Query("SELECT r FROM RestaurantSubmission r WHERE r.session.sessionId = :sessionId " +
+            "AND (r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.submissionId > :submissionId)) " +
+            "ORDER BY r.createdAt, r.submissionId")
+    List<RestaurantSubmission> findPageBySessionIdAfter(@Param("sessionId") String sessionId,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("submissionId") String submissionId,
+                                                        Limit limit);
 }
\ No newline at end of file
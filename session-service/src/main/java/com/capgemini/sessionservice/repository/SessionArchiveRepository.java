@@ -0,0 +1,170 @@
+package com.capgemini.sessionservice.repository;
+
+import com.capgemini.common.dto.RestaurantSubmissionDTO;
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.common.persistence.Uuids;
+import com.capgemini.sessionservice.entity.Session;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Set-based statements of the session archival (SessionArchiveService) and reads of the
+ * history tables. Every statement works on at most one chunk of sessions; rows are claimed
+ * with FOR UPDATE SKIP LOCKED so running chunks never wait on user requests or on each other.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SessionArchiveRepository {
+
+    private static final String[] HISTORY_TABLES = {
+            "sessions_history", "restaurant_submissions_history", "session_participants_history"
+    };
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // Sessions with a pending deadline are left to SessionDeadlineScheduler
+    private static final String LOCK_IDLE_SESSIONS =
+            "SELECT session_id FROM sessions " +
+            "WHERE status = 'ACTIVE' AND last_activity_at < ? AND (deadline IS NULL OR deadline <= ?) " +
+            "ORDER BY last_activity_at LIMIT ? " +
+            "FOR UPDATE SKIP LOCKED";
+
+    private static final String ARCHIVE_MONTHS =
+            "SELECT DISTINCT CAST(date_trunc('month', ended_at) AS date) FROM sessions " +
+            "WHERE status = 'ENDED' AND ended_at < ?";
+
+    // Deletes the chunk from the hot tables and inserts it into the history tables in one
+    // statement; the foreign keys between the deleted rows are checked at its end
+    private static final String ARCHIVE_ENDED_SESSIONS =
+            "WITH batch AS (" +
+            "    SELECT session_id, ended_at FROM sessions" +
+            "    WHERE status = 'ENDED' AND ended_at < ?" +
+            "    ORDER BY ended_at LIMIT ?" +
+            "    FOR UPDATE SKIP LOCKED), " +
+            "moved_participants AS (" +
+            "    DELETE FROM session_participants p USING batch b WHERE p.session_id = b.session_id" +
+            "    RETURNING p.session_id, p.participant_id, b.ended_at, p.joined_version, p.joined_at), " +
+            "archived_participants AS (" +
+            "    INSERT INTO session_participants_history" +
+            "        (session_id, participant_id, session_ended_at, joined_version, joined_at)" +
+            "    SELECT * FROM moved_participants), " +
+            "moved_submissions AS (" +
+            "    DELETE FROM restaurant_submissions r USING batch b WHERE r.session_id = b.session_id" +
+            "    RETURNING r.submission_id, r.session_id, b.ended_at, r.restaurant_name, r.address," +
+            "        r.description, r.submitted_by_user_id, r.session_version, r.created_at), " +
+            "archived_submissions AS (" +
+            "    INSERT INTO restaurant_submissions_history" +
+            "        (submission_id, session_id, session_ended_at, restaurant_name, address," +
+            "         description, submitted_by_user_id, session_version, created_at)" +
+            "    SELECT * FROM moved_submissions), " +
+            "moved_sessions AS (" +
+            "    DELETE FROM sessions s USING batch b WHERE s.session_id = b.session_id" +
+            "    RETURNING s.session_id, s.initiator_user_id, s.selected_restaurant_id, s.created_at," +
+            "        s.ended_at, s.last_activity_at, s.version, s.participant_count, s.submission_count) " +
+            "INSERT INTO sessions_history" +
+            "    (session_id, initiator_user_id, selected_restaurant_id, created_at, ended_at," +
+            "     last_activity_at, version, participant_count, submission_count) " +
+            "SELECT * FROM moved_sessions " +
+            "RETURNING session_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Only one instance archives at a time; the lock is released when the transaction ends.
+     */
+    public boolean tryLockArchival() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('session-archive'))", Boolean.class));
+    }
+
+    /**
+     * Locks up to limit ACTIVE sessions without activity since idleBefore and without a deadline
+     * after now; returns their IDs. Sessions locked by another instance are skipped.
+     * Must run in the transaction that ends them.
+     */
+    public List<String> lockIdleSessions(LocalDateTime idleBefore, LocalDateTime now, int limit) {
+        return jdbcTemplate.queryForList(LOCK_IDLE_SESSIONS, String.class,
+                Timestamp.valueOf(idleBefore), Timestamp.valueOf(now), limit);
+    }
+
+    /**
+     * Creates the monthly history partitions needed by sessions that ended before endedBefore.
+     */
+    public void createHistoryPartitions(LocalDateTime endedBefore) {
+        List<LocalDate> months = jdbcTemplate.queryForList(ARCHIVE_MONTHS, LocalDate.class,
+                Timestamp.valueOf(endedBefore));
+        for (LocalDate month : months) {
+            for (String table : HISTORY_TABLES) {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s_p%s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                        table, month.format(PARTITION_SUFFIX), table, month, month.plusMonths(1)));
+            }
+        }
+    }
+
+    /**
+     * Moves up to limit sessions that ended before endedBefore, with their participants and
+     * submissions, to the history tables; returns the IDs of the sessions moved.
+     */
+    public List<String> archiveEndedSessions(LocalDateTime endedBefore, int limit) {
+        return jdbcTemplate.queryForList(ARCHIVE_ENDED_SESSIONS, String.class, Timestamp.valueOf(endedBefore), limit);
+    }
+
+    public Optional<SessionDTO> findArchivedSession(String sessionId) {
+        UUID id = Uuids.parseOrNil(sessionId);
+        List<ArchivedSession> rows = jdbcTemplate.query(
+                "SELECT session_id, initiator_user_id, selected_restaurant_id, created_at, ended_at, version," +
+                " participant_count, submission_count FROM sessions_history WHERE session_id = ?",
+                (rs, rowNum) -> new ArchivedSession(new SessionDTO(
+                        rs.getString("session_id"),
+                        rs.getString("initiator_user_id"),
+                        Session.SessionStatus.ENDED.name(),
+                        null,
+                        null,
+                        null,
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        rs.getTimestamp("ended_at").toLocalDateTime(),
+                        rs.getLong("version"),
+                        rs.getInt("participant_count"),
+                        rs.getInt("submission_count"),
+                        null),
+                        rs.getString("selected_restaurant_id")),
+                id);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        SessionDTO session = rows.get(0).session();
+        String selectedRestaurantId = rows.get(0).selectedRestaurantId();
+        session.setParticipantIds(jdbcTemplate.queryForList(
+                "SELECT participant_id FROM session_participants_history WHERE session_id = ? ORDER BY joined_version",
+                String.class, id));
+        session.setSubmissions(jdbcTemplate.query(
+                "SELECT submission_id, restaurant_name, address, description, submitted_by_user_id" +
+                " FROM restaurant_submissions_history WHERE session_id = ? ORDER BY session_version, created_at",
+                (rs, rowNum) -> new RestaurantSubmissionDTO(
+                        rs.getString("submission_id"),
+                        rs.getString("restaurant_name"),
+                        rs.getString("address"),
+                        rs.getString("description"),
+                        rs.getString("submitted_by_user_id"),
+                        sessionId),
+                id));
+        session.setSelectedRestaurant(session.getSubmissions().stream()
+                .filter(submission -> submission.getSubmissionId().equals(selectedRestaurantId))
+                .findFirst()
+                .orElse(null));
+        return Optional.of(session);
+    }
+
+    private record ArchivedSession(SessionDTO session, String selectedRestaurantId) {
+    }
+}
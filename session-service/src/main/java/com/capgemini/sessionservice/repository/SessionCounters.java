@@ -0,0 +1,13 @@
+package com.capgemini.sessionservice.repository;
+
+/**
+ * Version and counters of a session as left by an atomic insert + counter update.
+ * The statements quote their column aliases: unquoted, PostgreSQL folds them to lower case.
+ */
+public interface SessionCounters {
+    long getVersion();
+
+    int getParticipantCount();
+
+    int getSubmissionCount();
+}
@@ -0,0 +1,14 @@
+package com.capgemini.sessionservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deadline of an ACTIVE session as needed to schedule its timer.
+ */
+public interface SessionDeadline {
+    String getSessionId();
+
+    LocalDateTime getDeadline();
+
+    boolean isDeadlineWarningSent();
+}
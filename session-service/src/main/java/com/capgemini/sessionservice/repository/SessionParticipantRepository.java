@@ -0,0 +1,40 @@
+package com.capgemini.sessionservice.repository;
+
+import com.capgemini.sessionservice.entity.SessionParticipant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SessionParticipantRepository extends JpaRepository<SessionParticipant, SessionParticipant.Key> {
+
+    boolean existsBySessionIdAndParticipantId(String sessionId, String participantId);
+
+    List<SessionParticipant> findBySessionIdInOrderByJoinedVersion(Collection<String> sessionIds);
+
+    /**
+     * Adds the participant with a single insert; returns 0 if they had already joined.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO session_participants (session_id, participant_id, joined_version, joined_at) " +
+            "VALUES (:sessionId, :participantId, :joinedVersion, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (session_id, participant_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("sessionId") UUID sessionId,
+                       @Param("participantId") String participantId,
+                       @Param("joinedVersion") long joinedVersion);
+
+    @Query("SELECT p.participantId FROM SessionParticipant p " +
+            "WHERE p.sessionId = :sessionId ORDER BY p.joinedVersion")
+    List<String> findParticipantIds(@Param("sessionId") String sessionId);
+
+    @Query("SELECT p.participantId FROM SessionParticipant p " +
+            "WHERE p.sessionId = :sessionId AND p.joinedVersion > :sinceVersion ORDER BY p.joinedVersion")
+    List<String> findParticipantIdsJoinedAfter(@Param("sessionId") String sessionId,
+                                               @Param("sinceVersion") long sinceVersion);
+}
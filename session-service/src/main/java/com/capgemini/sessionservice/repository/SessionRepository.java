@@ -1,13 +1,147 @@
 package com.capgemini.sessionservice.repository;
 
 import com.capgemini.sessionservice.entity.Session;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session, String> {
     List<Session> findByStatus(Session.SessionStatus status);
     List<Session> findByInitiatorUserId(String initiatorUserId);
+
+    @Query("SELECT s.version FROM Session s WHERE s.sessionId = :sessionId")
+    Optional<Long> findVersionById(@Param("sessionId") String sessionId);
+
+    /**
+     * The session with its selected restaurant, so that it can be mapped outside a transaction.
+     */
+    @Query("SELECT s FROM Session s LEFT JOIN FETCH s.selectedRestaurant WHERE s.sessionId = :sessionId")
+    Optional<Session> findWithSelectedRestaurantById(@Param("sessionId") String sessionId);
+
+    /**
+     * First page of sessions with the given status in (createdAt, sessionId) order.
+     */
+    @Query("SELECT s FROM Session s LEFT JOIN FETCH s.selectedRestaurant WHERE s.status = :status " +
+            "ORDER BY s.createdAt, s.sessionId")
+    List<Session> findWithSelectedRestaurantByStatus(@Param("status") Session.SessionStatus status, Limit limit);
+
+    /**
+     * Cursor over all sessions with the given status for exports; must be consumed inside
+     * a transaction and closed. Rows are fetched from the database in batches of 500.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Session s LEFT JOIN FETCH s.selectedRestaurant WHERE s.status = :status " +
+            "ORDER BY s.createdAt, s.sessionId")
+    Stream<Session> streamByStatus(@Param("status") Session.SessionStatus status);
+
+    /**
+     * Keyset page: sessions after the given (createdAt, sessionId) position, so deep pages
+     * cost the same as the first one.
+     */
+    @Query("SELECT s FROM Session s LEFT JOIN FETCH s.selectedRestaurant WHERE s.status = :status " +
+            "AND (s.createdAt > :createdAt OR (s.createdAt = :createdAt AND s.sessionId > :sessionId)) " +
+            "ORDER BY s.createdAt, s.sessionId")
+    List<Session> findWithSelectedRestaurantByStatusAfter(@Param("status") Session.SessionStatus status,
+                                                          @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("sessionId") String sessionId,
+                                                          Limit limit);
+
+    /**
+     * Sessions with a deadline, read at startup by SessionDeadlineScheduler; must be consumed
+     * inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.sessionId AS sessionId, s.deadline AS deadline, s.deadlineWarningSent AS deadlineWarningSent " +
+            "FROM Session s WHERE s.status = :status AND s.deadline IS NOT NULL")
+    Stream<SessionDeadline> streamDeadlinesByStatus(@Param("status") Session.SessionStatus status);
+
+    /**
+     * Sessions with a deadline up to until, re-read periodically by SessionDeadlineScheduler;
+     * must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.sessionId AS sessionId, s.deadline AS deadline, s.deadlineWarningSent AS deadlineWarningSent " +
+            "FROM Session s WHERE s.status = :status AND s.deadline <= :until")
+    Stream<SessionDeadline> streamDeadlinesByStatusUntil(@Param("status") Session.SessionStatus status,
+                                                         @Param("until") LocalDateTime until);
+
+    /**
+     * Marks SESSION_ENDING_SOON as sent; returns 0 if the session has ended or another
+     * instance already sent it.
+     */
+    @Modifying
+    @Query("UPDATE Session s SET s.deadlineWarningSent = true " +
+            "WHERE s.sessionId = :sessionId AND s.status = :status AND s.deadlineWarningSent = false")
+    int claimDeadlineWarning(@Param("sessionId") String sessionId, @Param("status") Session.SessionStatus status);
+
+    /**
+     * Loads the session for a mutation; concurrent mutations of one session are serialized
+     * so that each gets its own version.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Session s WHERE s.sessionId = :sessionId")
+    Optional<Session> findByIdForUpdate(@Param("sessionId") String sessionId);
+
+    /**
+     * Adds a participant to an ACTIVE session and bumps participant_count and version in one statement.
+     * Empty when nothing was inserted: unknown or ended session, or the user had already joined.
+     */
+    @Query(value = "WITH target AS (" +
+            "    SELECT session_id, version FROM sessions" +
+            "    WHERE session_id = :sessionId AND status = 'ACTIVE' FOR UPDATE), " +
+            "inserted AS (" +
+            "    INSERT INTO session_participants (session_id, participant_id, joined_version, joined_at)" +
+            "    SELECT session_id, :participantId, version + 1, CURRENT_TIMESTAMP FROM target" +
+            "    ON CONFLICT (session_id, participant_id) DO NOTHING" +
+            "    RETURNING session_id) " +
+            "UPDATE sessions SET participant_count = participant_count + 1, version = version + 1, " +
+            "    last_activity_at = CURRENT_TIMESTAMP " +
+            "WHERE session_id IN (SELECT session_id FROM inserted) " +
+            "RETURNING version, participant_count AS \"participantCount\", submission_count AS \"submissionCount\"",
+            nativeQuery = true)
+    Optional<SessionCounters> insertParticipant(@Param("sessionId") UUID sessionId,
+                                                @Param("participantId") String participantId);
+
+    /**
+     * Adds a submission to an ACTIVE session and bumps submission_count and version in one statement.
+     * Empty when the session is unknown or ended.
+     */
+    @Query(value = "WITH target AS (" +
+            "    SELECT session_id, version FROM sessions" +
+            "    WHERE session_id = :sessionId AND status = 'ACTIVE' FOR UPDATE), " +
+            "inserted AS (" +
+            "    INSERT INTO restaurant_submissions (submission_id, restaurant_name, address, description," +
+            "        submitted_by_user_id, session_id, session_version, created_at)" +
+            "    SELECT :submissionId, :restaurantName, :address, :description, :submittedByUserId," +
+            "        session_id, version + 1, CURRENT_TIMESTAMP FROM target" +
+            "    RETURNING session_id) " +
+            "UPDATE sessions SET submission_count = submission_count + 1, version = version + 1, " +
+            "    last_activity_at = CURRENT_TIMESTAMP " +
+            "WHERE session_id IN (SELECT session_id FROM inserted) " +
+            "RETURNING version, participant_count AS \"participantCount\", submission_count AS \"submissionCount\"",
+            nativeQuery = true)
+    Optional<SessionCounters> insertSubmission(@Param("sessionId") UUID sessionId,
+                                               @Param("submissionId") UUID submissionId,
+                                               @Param("restaurantName") String restaurantName,
+                                               @Param("address") String address,
+                                               @Param("description") String description,
+                                               @Param("submittedByUserId") String submittedByUserId);
 }
\ No newline at end of file
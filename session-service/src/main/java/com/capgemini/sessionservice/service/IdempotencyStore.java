@@ -0,0 +1,119 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.exception.BusinessException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Results of mutating requests by Idempotency-Key, so that client retries are answered from
+ * memory instead of running the User Service call and the transaction again.
+ *
+ * The first request with a key runs and stores its pending result; duplicates arriving while it
+ * runs wait for that same result. A key reused with a different request body is rejected.
+ * Failed requests are forgotten so that they can be retried. Keys are kept per scope (operation,
+ * session and user) for session.idempotency.ttl on this instance only.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> entries;
+    private final Counter replayed;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${session.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${session.idempotency.ttl:10m}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+        this.replayed = Counter.builder("idempotency.replayed")
+                .description("Requests answered with the result of an earlier request with the same key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs action once per key; without a key it simply runs it.
+     */
+    public <T> Mono<T> execute(String scope, String key, Object request, Supplier<Mono<T>> action) {
+        // Subscribed once and detached from the caller, so a cancelled first request still
+        // completes for the retries waiting on it
+        return Mono.defer(() -> Mono.fromFuture(submit(scope, key, request, () -> action.get().toFuture()), true));
+    }
+
+    /**
+     * Blocking variant for synchronous endpoints.
+     */
+    public <T> T executeBlocking(String scope, String key, Object request, Supplier<T> action) {
+        try {
+            return submit(scope, key, request, () -> CompletableFuture.completedFuture(action.get())).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(String scope, String key, Object request,
+                                            Supplier<CompletableFuture<T>> action) {
+        if (key == null) {
+            return invoke(action);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("INVALID_IDEMPOTENCY_KEY",
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = scope + '|' + key;
+        Entry entry = new Entry(request, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(cacheKey, entry);
+        if (existing != null) {
+            if (!Objects.equals(existing.request(), request)) {
+                throw new BusinessException("IDEMPOTENCY_KEY_REUSED",
+                        HEADER + " was already used for a different request");
+            }
+            replayed.increment();
+            return (CompletableFuture<T>) existing.result();
+        }
+
+        invoke(action).whenComplete((value, error) -> {
+            if (error != null) {
+                entries.asMap().remove(cacheKey, entry);
+                entry.result().completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            } else {
+                entry.result().complete(value);
+            }
+        });
+        return (CompletableFuture<T>) entry.result();
+    }
+
+    private static <T> CompletableFuture<T> invoke(Supplier<CompletableFuture<T>> action) {
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private record Entry(Object request, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges bursts of session notifications into one frame per window.
+ * USER_JOINED and RESTAURANT_SUBMITTED notifications of the same session that arrive within
+ * the window are sent as a single aggregated notification (see {@link NotificationDTO#coalesced}).
+ * HIGH/URGENT notifications and notifications that are merged already (bulk submissions)
+ * bypass the window; pending windows of their session are flushed first so that subscribers
+ * still see the events in order.
+ */
+@Component
+@Slf4j
+public class NotificationCoalescer {
+
+    private static final Set<NotificationDTO.NotificationType> COALESCIBLE_TYPES = EnumSet.of(
+            NotificationDTO.NotificationType.USER_JOINED,
+            NotificationDTO.NotificationType.RESTAURANT_SUBMITTED
+    );
+
+    private final NotificationService notificationService;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxItems;
+
+    private final ConcurrentHashMap<WindowKey, Window> windows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final Counter mergedEvents;
+    private final Counter sentWindows;
+
+    @Autowired
+    public NotificationCoalescer(NotificationService notificationService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notification.coalescing.enabled:true}") boolean enabled,
+                                 @Value("${notification.coalescing.window:50ms}") Duration window,
+                                 @Value("${notification.coalescing.max-items:100}") int maxItems) {
+        this(notificationService, meterRegistry, enabled, window, maxItems,
+                Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-coalescer-")));
+    }
+
+    // Tests pass a scheduler whose window timers they fire themselves
+    NotificationCoalescer(NotificationService notificationService, MeterRegistry meterRegistry,
+                          boolean enabled, Duration window, int maxItems, ScheduledExecutorService scheduler) {
+        this.notificationService = notificationService;
+        this.scheduler = scheduler;
+        this.enabled = enabled;
+        this.windowMillis = window.toMillis();
+        this.maxItems = maxItems;
+
+        this.mergedEvents = Counter.builder("notifications.coalescing.events")
+                .description("Session notifications that went through a coalescing window")
+                .register(meterRegistry);
+        this.sentWindows = Counter.builder("notifications.coalescing.frames")
+                .description("Frames sent for coalescing windows")
+                .register(meterRegistry);
+    }
+
+    public void submit(String sessionId, NotificationDTO notification) {
+        if (!enabled || !isCoalescible(notification)) {
+            flushSession(sessionId);
+            notificationService.sendSessionNotification(sessionId, notification);
+            return;
+        }
+
+        WindowKey key = new WindowKey(sessionId, notification.getType());
+        Window[] full = new Window[1];
+
+        windows.compute(key, (k, window) -> {
+            if (window == null) {
+                Window created = new Window();
+                created.timer = scheduler.schedule(() -> flush(k, created), windowMillis, TimeUnit.MILLISECONDS);
+                window = created;
+            }
+            window.items.add(notification);
+            if (window.items.size() >= maxItems) {
+                full[0] = window;
+                return null;
+            }
+            return window;
+        });
+
+        mergedEvents.increment();
+        if (full[0] != null) {
+            full[0].timer.cancel(false);
+            send(key, full[0]);
+        }
+    }
+
+    private boolean isCoalescible(NotificationDTO notification) {
+        NotificationDTO.NotificationPriority priority = notification.getPriority();
+        boolean urgent = priority == NotificationDTO.NotificationPriority.HIGH
+                || priority == NotificationDTO.NotificationPriority.URGENT;
+        // Merging a merged notification again would nest its items
+        boolean merged = notification.getData() != null && Boolean.TRUE.equals(notification.getData().get("coalesced"));
+        return !urgent && !merged && COALESCIBLE_TYPES.contains(notification.getType());
+    }
+
+    private void flushSession(String sessionId) {
+        for (NotificationDTO.NotificationType type : COALESCIBLE_TYPES) {
+            WindowKey key = new WindowKey(sessionId, type);
+            Window window = windows.remove(key);
+            if (window != null) {
+                window.timer.cancel(false);
+                send(key, window);
+            }
+        }
+    }
+
+    private void flush(WindowKey key, Window window) {
+        if (windows.remove(key, window)) {
+            send(key, window);
+        }
+    }
+
+    private void send(WindowKey key, Window window) {
+        sentWindows.increment();
+        try {
+            NotificationDTO notification = window.items.size() == 1
+                    ? window.items.get(0)
+                    : NotificationDTO.coalesced(key.sessionId(), key.type(), window.items);
+            notificationService.sendSessionNotification(key.sessionId(), notification);
+        } catch (Exception e) {
+            log.error("Failed to send coalesced {} notification for session {}: {}",
+                    key.type(), key.sessionId(), e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        windows.forEach((key, window) -> flush(key, window));
+    }
+
+    private record WindowKey(String sessionId, NotificationDTO.NotificationType type) {
+    }
+
+    // Only touched inside windows.compute(...) until it is removed from the map
+    private static class Window {
+        private final List<NotificationDTO> items = new ArrayList<>();
+        private ScheduledFuture<?> timer;
+    }
+}
@@ -0,0 +1,194 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.event.NotificationEvent;
+import com.capgemini.sessionservice.relay.NotificationRelay;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers {@link NotificationEvent}s after the publishing transaction commits.
+ * Rolled back transactions never notify, and the WebSocket fan-out no longer runs while
+ * the transaction (and its DB connection) is held.
+ *
+ * Events are drained by a fixed pool from a bounded queue. When the queue is full the
+ * configured overflow policy applies:
+ * BLOCK waits up to offer-timeout for space, DROP_LOW drops LOW priority notifications (others
+ * wait like BLOCK), FAIL drops the notification and counts it as rejected.
+ * No policy waits without bound: after offer-timeout the notification is rejected. The
+ * publishing thread runs after commit but still holds its DB connection, so it must not stall
+ * behind a slow fan-out. Events received from peers never wait, so the relay keeps listening.
+ *
+ * Session topic notifications go through {@link NotificationCoalescer}.
+ * Locally published events are also handed to the {@link NotificationRelay} from the
+ * delivery thread; events received from peers are delivered here but not relayed again.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    public enum OverflowPolicy {
+        /** Bounded wait: up to offer-timeout for space, then rejected. */
+        BLOCK,
+        DROP_LOW,
+        FAIL
+    }
+
+    private final NotificationService notificationService;
+    private final NotificationCoalescer notificationCoalescer;
+    private final NotificationRelay notificationRelay;
+    private final OverflowPolicy overflowPolicy;
+    private final long offerTimeoutNanos;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueLatency;
+    private final Timer deliveryLatency;
+    private final Counter droppedLow;
+    private final Counter rejected;
+
+    public NotificationDispatcher(NotificationService notificationService,
+                                  NotificationCoalescer notificationCoalescer,
+                                  NotificationRelay notificationRelay,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.dispatcher.threads:4}") int threads,
+                                  @Value("${notification.dispatcher.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${notification.dispatcher.overflow-policy:DROP_LOW}") OverflowPolicy overflowPolicy,
+                                  @Value("${notification.dispatcher.offer-timeout:50ms}") Duration offerTimeout,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.notificationService = notificationService;
+        this.notificationCoalescer = notificationCoalescer;
+        this.notificationRelay = notificationRelay;
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        ThreadFactory threadFactory = virtualThreads
+                ? new VirtualThreadTaskExecutor("notification-dispatch-").getVirtualThreadFactory()
+                : new CustomizableThreadFactory("notification-dispatch-");
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                queue, threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+
+        Gauge.builder("notifications.dispatch.queue.size", queue, BlockingQueue::size)
+                .description("Notifications waiting for delivery")
+                .register(meterRegistry);
+        Gauge.builder("notifications.dispatch.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .register(meterRegistry);
+        this.queueLatency = Timer.builder("notifications.dispatch.queue.latency")
+                .description("Time from publication (commit) to start of delivery")
+                .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("notifications.dispatch.delivery")
+                .description("Time spent delivering one queued notification")
+                .register(meterRegistry);
+        this.droppedLow = Counter.builder("notifications.dispatch.dropped")
+                .tag("reason", "low-priority")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("notifications.dispatch.dropped")
+                .tag("reason", "rejected")
+                .register(meterRegistry);
+
+        log.info("Notification dispatcher started ({} {} threads, queue {}, overflow {}, offer timeout {})",
+                threads, virtualThreads ? "virtual" : "platform", queueCapacity, overflowPolicy, offerTimeout);
+
+        notificationRelay.onRemoteEvent(event -> enqueue(event, false));
+    }
+
+    /**
+     * Runs after commit; events published outside a transaction are dispatched right away.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationEvent(NotificationEvent event) {
+        enqueue(event, true);
+    }
+
+    private void enqueue(NotificationEvent event, boolean relay) {
+        Runnable task = () -> {
+            if (relay) {
+                notificationRelay.publish(event);
+            }
+            deliver(event);
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Local events wait a little for space; relayed ones are handled on the relay's only listener thread
+            handleOverflow(event, task, relay ? offerTimeoutNanos : 0);
+        }
+    }
+
+    private void handleOverflow(NotificationEvent event, Runnable task, long waitNanos) {
+        if (overflowPolicy == OverflowPolicy.FAIL || executor.isShutdown()) {
+            reject(event);
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.DROP_LOW
+                && event.getPriority() == NotificationDTO.NotificationPriority.LOW) {
+            droppedLow.increment();
+            log.warn("Notification queue full, dropped LOW priority {}", event.getNotification().getType());
+            return;
+        }
+
+        try {
+            if (!queue.offer(task, waitNanos, TimeUnit.NANOSECONDS)) {
+                reject(event);
+            } else if (executor.isShutdown() && queue.remove(task)) {
+                // Offered straight to the queue, past execute(): shutdown may have drained it already
+                reject(event);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(event);
+        }
+    }
+
+    private void reject(NotificationEvent event) {
+        rejected.increment();
+        log.error("Notification queue full, rejected {} for {}",
+                event.getNotification().getType(), event.getRecipients());
+    }
+
+    private void deliver(NotificationEvent event) {
+        queueLatency.record(System.nanoTime() - event.getPublishedAtNanos(), TimeUnit.NANOSECONDS);
+        deliveryLatency.record(() -> {
+            try {
+                switch (event.getChannel()) {
+                    case PERSONAL -> notificationService.sendPersonalNotifications(
+                            event.getRecipients(), event.getNotification());
+                    case SESSION -> notificationCoalescer.submit(
+                            event.getRecipients().get(0), event.getNotification());
+                    case GLOBAL -> notificationService.sendGlobalNotification(event.getNotification());
+                }
+            } catch (Exception e) {
+                log.error("Failed to deliver {} notification: {}", event.getChannel(), e.getMessage(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Notification dispatcher stopped with {} undelivered notifications", queue.size());
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pre-encodes a {@link NotificationDTO} for fan-out to many personal queues.
+ * Everything except the per-recipient fields (userId, channel) is serialized once;
+ * each recipient payload is the shared bytes plus a small appended suffix.
+ * Uses the application ObjectMapper, so the JSON matches what the STOMP message converter produces.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationPayloadEncoder {
+
+    private static final byte[] USER_ID_NAME = "\"userId\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CHANNEL_NAME = "\"channel\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+
+    public SharedPayload encode(NotificationDTO notification) {
+        ObjectNode node = objectMapper.valueToTree(notification);
+        node.remove("userId");
+        node.remove("channel");
+        try {
+            return new SharedPayload(objectMapper.writeValueAsBytes(node), omitsNulls());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode notification " + notification.getId(), e);
+        }
+    }
+
+    // Whether the ObjectMapper leaves out null fields (spring.jackson.default-property-inclusion)
+    private boolean omitsNulls() {
+        JsonInclude.Include inclusion = objectMapper.getSerializationConfig()
+                .getDefaultPropertyInclusion(NotificationDTO.class)
+                .getValueInclusion();
+        return inclusion != JsonInclude.Include.ALWAYS && inclusion != JsonInclude.Include.USE_DEFAULTS;
+    }
+
+    /**
+     * Serialized shared part of a notification, ending with the closing brace.
+     */
+    public static final class SharedPayload {
+
+        private final byte[] body;
+        private final int prefixLength;     // body without the closing brace
+        private final boolean needsComma;   // false only for an empty object
+        private final boolean omitNulls;
+
+        private SharedPayload(byte[] body, boolean omitNulls) {
+            this.body = body;
+            this.prefixLength = body.length - 1;
+            this.needsComma = body.length > 2;
+            this.omitNulls = omitNulls;
+        }
+
+        public int size() {
+            return body.length;
+        }
+
+        /**
+         * Returns the complete JSON payload for one recipient. Null values are written or left
+         * out as the ObjectMapper would.
+         */
+        public byte[] forRecipient(String userId, String channel) {
+            byte[] userIdValue = userId != null ? JsonStringEncoder.getInstance().quoteAsUTF8(userId) : null;
+            byte[] channelValue = channel != null ? JsonStringEncoder.getInstance().quoteAsUTF8(channel) : null;
+            boolean withUserId = userId != null || !omitNulls;
+            boolean withChannel = channel != null || !omitNulls;
+
+            int length = body.length;
+            int fields = 0;
+            if (withUserId) {
+                length += USER_ID_NAME.length + valueLength(userIdValue);
+                fields++;
+            }
+            if (withChannel) {
+                length += CHANNEL_NAME.length + valueLength(channelValue);
+                fields++;
+            }
+            // A comma before every appended field, except the first one in an empty object
+            length += needsComma || fields == 0 ? fields : fields - 1;
+            byte[] payload = new byte[length];
+
+            int pos = append(payload, 0, body, prefixLength);
+            boolean comma = needsComma;
+            if (withUserId) {
+                pos = appendField(payload, pos, comma, USER_ID_NAME, userIdValue);
+                comma = true;
+            }
+            if (withChannel) {
+                pos = appendField(payload, pos, comma, CHANNEL_NAME, channelValue);
+            }
+            payload[pos] = '}';
+            return payload;
+        }
+
+        // Quoted string, or the null literal
+        private static int valueLength(byte[] escaped) {
+            return escaped != null ? escaped.length + 2 : NULL.length;
+        }
+
+        private static int appendField(byte[] target, int pos, boolean comma, byte[] name, byte[] escaped) {
+            if (comma) {
+                target[pos++] = ',';
+            }
+            pos = append(target, pos, name, name.length);
+            if (escaped == null) {
+                return append(target, pos, NULL, NULL.length);
+            }
+            target[pos++] = '"';
+            pos = append(target, pos, escaped, escaped.length);
+            target[pos++] = '"';
+            return pos;
+        }
+
+        private static int append(byte[] target, int pos, byte[] source, int length) {
+            System.arraycopy(source, 0, target, pos, length);
+            return pos + length;
+        }
+    }
+}
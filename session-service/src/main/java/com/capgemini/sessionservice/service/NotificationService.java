@@ -1,19 +1,32 @@
 package com.capgemini.sessionservice.service;
 
 import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.dto.NotificationReplayDTO;
+import com.capgemini.sessionservice.websocket.SlowConsumerGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
+import org.springframework.util.MimeTypeUtils;
+
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
+    private static final String PERSONAL_QUEUE = "/queue/notifications";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationPayloadEncoder payloadEncoder;
+    private final SessionReplayBuffer replayBuffer;
 
     /**
      * CHANNEL 1: Personal Notifications
@@ -28,35 +41,81 @@ public class NotificationService {
         messagingTemplate.convertAndSendToUser(
             userId,
             "/queue/notifications",
-            notification
+            notification,
+            priorityHeader(notification)
         );
     }
 
     /**
      * CHANNEL 1: Personal Notifications (Multiple Users)
-     * Send same notification to multiple users
+     * Send same notification to multiple users.
+     * The notification is serialized once; every recipient gets the shared bytes with its own
+     * userId and channel appended, sent as a pre-encoded STOMP payload.
      */
     public void sendPersonalNotifications(List<String> userIds, NotificationDTO notification) {
-        log.info("[PERSONAL] Broadcasting to {} users: {}",
-            userIds.size(), notification.getMessage());
+        NotificationPayloadEncoder.SharedPayload payload = payloadEncoder.encode(notification);
+        log.info("[PERSONAL] Broadcasting to {} users: {} ({} bytes shared)",
+            userIds.size(), notification.getMessage(), payload.size());
+
+        userIds.forEach(userId -> {
+            String channel = "/user/" + userId + PERSONAL_QUEUE;
+            log.debug("[PERSONAL] Sending to user {}: {}", userId, notification.getType());
+            messagingTemplate.send(userDestination(userId),
+                preEncoded(payload.forRecipient(userId, channel), notification));
+        });
+    }
+
+    // Same destination convertAndSendToUser(userId, PERSONAL_QUEUE, ...) resolves to
+    private String userDestination(String userId) {
+        return messagingTemplate.getUserDestinationPrefix() + userId.replace("/", "%2F") + PERSONAL_QUEUE;
+    }
+
+    private Message<byte[]> preEncoded(byte[] json, NotificationDTO notification) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setNativeHeader(SlowConsumerGuard.PRIORITY_HEADER, priorityOf(notification));
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+    }
+
+    // Lets the SlowConsumerGuard shed LOW/NORMAL notifications before HIGH/URGENT ones
+    private Map<String, Object> priorityHeader(NotificationDTO notification) {
+        return Map.of(SlowConsumerGuard.PRIORITY_HEADER, priorityOf(notification));
+    }
 
-        userIds.forEach(userId -> sendPersonalNotification(userId, notification));
+    private String priorityOf(NotificationDTO notification) {
+        return notification.getPriority() != null
+            ? notification.getPriority().name()
+            : NotificationDTO.NotificationPriority.NORMAL.name();
     }
 
     /**
      * CHANNEL 2: Session-Specific Notifications
      * Broadcast to all users subscribed to a specific session
      * Destination: /topic/session/{sessionId}
+     * Every notification gets the next sequence number of its session (see SessionReplayBuffer)
      */
     public void sendSessionNotification(String sessionId, NotificationDTO notification) {
         notification.setChannel("/topic/session/" + sessionId);
-        log.info("[SESSION:{}] Broadcasting: {} - {}",
-            sessionId, notification.getType(), notification.getMessage());
 
-        messagingTemplate.convertAndSend(
-            "/topic/session/" + sessionId,
-            notification
-        );
+        replayBuffer.append(sessionId, notification, sequenced -> {
+            log.info("[SESSION:{}] Broadcasting #{}: {} - {}",
+                sessionId, sequenced.getSequence(), sequenced.getType(), sequenced.getMessage());
+
+            messagingTemplate.convertAndSend(
+                "/topic/session/" + sessionId,
+                sequenced,
+                priorityHeader(sequenced)
+            );
+        });
+    }
+
+    /**
+     * Session notifications sent after the given sequence of the given epoch, for clients
+     * catching up after a reconnect
+     */
+    public NotificationReplayDTO getSessionNotificationsAfter(String sessionId, String epoch, long afterSequence) {
+        return replayBuffer.replay(sessionId, epoch, afterSequence);
     }
 
     /**
@@ -71,7 +130,8 @@ public class NotificationService {
 
         messagingTemplate.convertAndSend(
             "/topic/global",
-            notification
+            notification,
+            priorityHeader(notification)
         );
     }
 
@@ -0,0 +1,151 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.common.exception.ResourceNotFoundException;
+import com.capgemini.sessionservice.event.SessionChangedEvent;
+import com.capgemini.sessionservice.repository.SessionArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps the hot session tables small.
+ *
+ * Each run first ends ACTIVE sessions without a join or submission for session.archive.idle-after
+ * (as at a deadline: a restaurant is selected if there are submissions, and the participants are
+ * notified; sessions whose deadline is still ahead are left to SessionDeadlineScheduler), then moves sessions ended more than session.archive.retain-ended ago, with their participants
+ * and submissions, into the monthly partitioned *_history tables. Both steps work in chunks of
+ * chunk-size sessions, each in its own short transaction, and stop after max-chunks per run.
+ * Archived sessions are read through GET /api/sessions/history/{sessionId}; their cached
+ * SessionDTOs are dropped when the chunk that moved them commits.
+ */
+@Service
+@Slf4j
+public class SessionArchiveService {
+
+    private final SessionArchiveRepository archiveRepository;
+    private final SessionService sessionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration idleAfter;
+    private final Duration retainEnded;
+    private final int chunkSize;
+    private final int maxChunks;
+
+    private final Counter idleEnded;
+    private final Counter archived;
+
+    public SessionArchiveService(SessionArchiveRepository archiveRepository,
+                                 SessionService sessionService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${session.archive.enabled:true}") boolean enabled,
+                                 @Value("${session.archive.idle-after:24h}") Duration idleAfter,
+                                 @Value("${session.archive.retain-ended:30d}") Duration retainEnded,
+                                 @Value("${session.archive.chunk-size:500}") int chunkSize,
+                                 @Value("${session.archive.max-chunks:100}") int maxChunks) {
+        this.archiveRepository = archiveRepository;
+        this.sessionService = sessionService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.idleAfter = idleAfter;
+        this.retainEnded = retainEnded;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+
+        this.idleEnded = Counter.builder("sessions.archive.idle-ended")
+                .description("ACTIVE sessions ended for inactivity")
+                .register(meterRegistry);
+        this.archived = Counter.builder("sessions.archive.archived")
+                .description("ENDED sessions moved to the history tables")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${session.archive.interval:PT1H}",
+            initialDelayString = "${session.archive.initial-delay:PT5M}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        int ended = endIdleSessions();
+        int moved = archiveEndedSessions();
+        if (ended > 0 || moved > 0) {
+            log.info("Session archival: {} idle sessions ended, {} ended sessions archived", ended, moved);
+        }
+    }
+
+    public SessionDTO getArchivedSession(String sessionId) {
+        return archiveRepository.findArchivedSession(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Archived session", sessionId));
+    }
+
+    private int endIdleSessions() {
+        LocalDateTime idleBefore = LocalDateTime.now().minus(idleAfter);
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            // The notifications and SessionChangedEvents of the chunk go out when it commits
+            Integer ended = transactionTemplate.execute(status -> (int) archiveRepository
+                    .lockIdleSessions(idleBefore, LocalDateTime.now(), chunkSize).stream()
+                    .filter(sessionService::endIdleSession)
+                    .count());
+            if (ended == null || ended == 0) {
+                break;
+            }
+            idleEnded.increment(ended);
+            total += ended;
+            if (ended < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int archiveEndedSessions() {
+        LocalDateTime endedBefore = LocalDateTime.now().minus(retainEnded);
+        Boolean locked = transactionTemplate.execute(status -> {
+            if (!archiveRepository.tryLockArchival()) {
+                return false;
+            }
+            archiveRepository.createHistoryPartitions(endedBefore);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Session archival is running on another instance");
+            return 0;
+        }
+
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            Integer moved = transactionTemplate.execute(status -> {
+                if (!archiveRepository.tryLockArchival()) {
+                    return 0;
+                }
+                List<String> sessionIds = archiveRepository.archiveEndedSessions(endedBefore, chunkSize);
+                // Ended sessions stay cached for session.cache.ended-ttl otherwise
+                sessionIds.forEach(sessionId -> eventPublisher.publishEvent(SessionChangedEvent.invalidated(sessionId)));
+                return sessionIds.size();
+            });
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived.increment(moved);
+            total += moved;
+            if (moved < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
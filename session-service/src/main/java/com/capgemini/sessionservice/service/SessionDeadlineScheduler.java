@@ -0,0 +1,202 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.event.SessionChangedEvent;
+import com.capgemini.sessionservice.repository.SessionDeadline;
+import com.capgemini.sessionservice.repository.SessionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Ends sessions at their deadline.
+ *
+ * Every ACTIVE session with a deadline has exactly one timeout on a hashed timing wheel: first
+ * for the SESSION_ENDING_SOON warning at deadline minus warning-before, which then reschedules
+ * itself for the deadline. A timeout is a small object in a wheel bucket, so hundreds of
+ * thousands of pending sessions cost neither a scheduled-executor task each nor any polling;
+ * the price is that timers fire up to one tick late. The wheel thread only hands the work
+ * over to the DB scheduler.
+ *
+ * Sessions are scheduled by the instance that created them and, after a restart, by every
+ * instance from the database. Every rescan-interval each instance also schedules the stored
+ * deadlines whose warning is due before the next scan, so deadlines of sessions created on
+ * other instances fire here too. Warning and end are safe to run on several instances: the
+ * warning is claimed in the database and ending an ended session does nothing.
+ */
+@Component
+@Slf4j
+public class SessionDeadlineScheduler {
+
+    private final SessionService sessionService;
+    private final SessionRepository sessionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Scheduler dbScheduler;
+    private final Duration warningBefore;
+    private final Duration rescanInterval;
+    private final HashedWheelTimer timer;
+    private final Map<String, PendingDeadline> pending = new ConcurrentHashMap<>();
+
+    public SessionDeadlineScheduler(SessionService sessionService,
+                                    SessionRepository sessionRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    Scheduler dbScheduler,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${session.deadline.warning-before:5m}") Duration warningBefore,
+                                    @Value("${session.deadline.tick-duration:1s}") Duration tickDuration,
+                                    @Value("${session.deadline.ticks-per-wheel:1024}") int ticksPerWheel,
+                                    @Value("${session.deadline.rescan-interval:PT1M}") Duration rescanInterval) {
+        this.sessionService = sessionService;
+        this.sessionRepository = sessionRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.dbScheduler = dbScheduler;
+        this.warningBefore = warningBefore;
+        this.rescanInterval = rescanInterval;
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("session-deadline", true),
+                tickDuration.toMillis(), TimeUnit.MILLISECONDS, ticksPerWheel);
+
+        Gauge.builder("sessions.deadline.pending", pending, Map::size)
+                .description("Sessions with a scheduled deadline")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadDeadlines() {
+        int loaded = scheduleStored(() -> sessionRepository.streamDeadlinesByStatus(Session.SessionStatus.ACTIVE));
+        log.info("Scheduled {} session deadlines", loaded);
+    }
+
+    /**
+     * Schedules the deadlines of sessions created or given a deadline on other instances since
+     * the last scan. Deadlines already pending here are left as they are.
+     */
+    @Scheduled(fixedDelayString = "${session.deadline.rescan-interval:PT1M}",
+            initialDelayString = "${session.deadline.rescan-interval:PT1M}")
+    public void rescanDeadlines() {
+        // Warnings are due warning-before the deadline; the next scan runs rescan-interval from now
+        LocalDateTime until = LocalDateTime.now().plus(rescanInterval).plus(warningBefore);
+        int added = scheduleStored(() ->
+                sessionRepository.streamDeadlinesByStatusUntil(Session.SessionStatus.ACTIVE, until));
+        if (added > 0) {
+            log.info("Scheduled {} session deadlines found by the rescan", added);
+        }
+    }
+
+    private int scheduleStored(Supplier<Stream<SessionDeadline>> query) {
+        Integer scheduled = readOnlyTransaction.execute(status -> {
+            try (Stream<SessionDeadline> deadlines = query.get()) {
+                int count = 0;
+                for (SessionDeadline deadline : (Iterable<SessionDeadline>) deadlines::iterator) {
+                    if (schedule(deadline.getSessionId(), deadline.getDeadline(), deadline.isDeadlineWarningSent())) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+        });
+        return scheduled != null ? scheduled : 0;
+    }
+
+    /**
+     * Runs after commit: schedules new deadlines and drops those of ended sessions.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        SessionDTO session = event.getSession();
+        if (session == null) {
+            return;
+        }
+        if (Session.SessionStatus.ENDED.name().equals(session.getStatus())) {
+            PendingDeadline removed = pending.remove(session.getSessionId());
+            if (removed != null && removed.timeout != null) {
+                removed.timeout.cancel();
+            }
+        } else if (session.getDeadline() != null) {
+            schedule(session.getSessionId(), session.getDeadline(), false);
+        }
+    }
+
+    private boolean schedule(String sessionId, LocalDateTime deadline, boolean warningSent) {
+        PendingDeadline entry = new PendingDeadline(sessionId, deadline);
+        if (pending.putIfAbsent(sessionId, entry) != null) {
+            return false;
+        }
+        // Registered before the timeout exists, so a timeout firing at once still finds its entry
+        entry.timeout = !warningSent && deadline.isAfter(LocalDateTime.now())
+                ? timer.newTimeout(timeout -> onWarning(entry),
+                        delayUntil(deadline.minus(warningBefore)), TimeUnit.MILLISECONDS)
+                : timer.newTimeout(timeout -> onDeadline(entry), delayUntil(deadline), TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private void onWarning(PendingDeadline entry) {
+        if (pending.get(entry.sessionId) != entry) {
+            return;
+        }
+        dbScheduler.schedule(() -> {
+            try {
+                sessionService.sendDeadlineWarning(entry.sessionId, entry.deadline);
+            } catch (RuntimeException e) {
+                log.warn("Failed to send the deadline warning of session {}: {}", entry.sessionId, e.getMessage());
+            }
+            entry.timeout = timer.newTimeout(timeout -> onDeadline(entry),
+                    delayUntil(entry.deadline), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void onDeadline(PendingDeadline entry) {
+        if (!pending.remove(entry.sessionId, entry)) {
+            return;
+        }
+        dbScheduler.schedule(() -> {
+            try {
+                sessionService.endSessionAtDeadline(entry.sessionId);
+            } catch (RuntimeException e) {
+                log.error("Failed to end session {} at its deadline: {}", entry.sessionId, e.getMessage());
+            }
+        });
+    }
+
+    private static long delayUntil(LocalDateTime time) {
+        return Math.max(0, Duration.between(LocalDateTime.now(), time).toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.stop();
+    }
+
+    private static final class PendingDeadline {
+        private final String sessionId;
+        private final LocalDateTime deadline;
+        private volatile Timeout timeout;
+
+        PendingDeadline(String sessionId, LocalDateTime deadline) {
+            this.sessionId = sessionId;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.RestaurantSubmissionDTO;
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.sessionservice.entity.RestaurantSubmission;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.entity.SessionParticipant;
+import com.capgemini.sessionservice.repository.RestaurantSubmissionRepository;
+import com.capgemini.sessionservice.repository.SessionParticipantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds SessionDTOs for any number of sessions with a fixed number of queries:
+ * participants and submissions of all given sessions are loaded with one IN query each
+ * instead of initializing the collections session by session.
+ * The selected restaurant is expected to be fetched with the sessions
+ * (see SessionRepository#findWithSelectedRestaurantByStatus).
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionDtoAssembler {
+
+    private final SessionParticipantRepository participantRepository;
+    private final RestaurantSubmissionRepository submissionRepository;
+
+    public SessionDTO toDTO(Session session) {
+        return toDTOs(List.of(session)).get(0);
+    }
+
+    public List<SessionDTO> toDTOs(List<Session> sessions) {
+        if (sessions.isEmpty()) {
+            return List.of();
+        }
+        List<String> sessionIds = sessions.stream()
+                .map(Session::getSessionId)
+                .toList();
+
+        Map<String, List<String>> participantsBySession = participantRepository
+                .findBySessionIdInOrderByJoinedVersion(sessionIds).stream()
+                .collect(Collectors.groupingBy(SessionParticipant::getSessionId,
+                        Collectors.mapping(SessionParticipant::getParticipantId, Collectors.toList())));
+
+        Map<String, List<RestaurantSubmissionDTO>> submissionsBySession = submissionRepository
+                .findBySession_SessionIdInOrderBySessionVersion(sessionIds).stream()
+                .map(this::toSubmissionDTO)
+                .collect(Collectors.groupingBy(RestaurantSubmissionDTO::getSessionId));
+
+        return sessions.stream()
+                .map(session -> new SessionDTO(
+                        session.getSessionId(),
+                        session.getInitiatorUserId(),
+                        session.getStatus().name(),
+                        participantsBySession.getOrDefault(session.getSessionId(), List.of()),
+                        submissionsBySession.getOrDefault(session.getSessionId(), List.of()),
+                        session.getSelectedRestaurant() != null ?
+                                toSubmissionDTO(session.getSelectedRestaurant()) : null,
+                        session.getCreatedAt(),
+                        session.getEndedAt(),
+                        session.getVersion(),
+                        session.getParticipantCount(),
+                        session.getSubmissionCount(),
+                        session.getDeadline()
+                ))
+                .collect(Collectors.toList());
+    }
+
+    public RestaurantSubmissionDTO toSubmissionDTO(RestaurantSubmission submission) {
+        return new RestaurantSubmissionDTO(
+                submission.getSubmissionId(),
+                submission.getRestaurantName(),
+                submission.getAddress(),
+                submission.getDescription(),
+                submission.getSubmittedByUserId(),
+                // Reads the id from the lazy proxy without loading the session
+                submission.getSession().getSessionId()
+        );
+    }
+}
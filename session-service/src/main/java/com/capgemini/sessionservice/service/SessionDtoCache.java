@@ -0,0 +1,111 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.event.SessionChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of fully built SessionDTOs for GET /api/sessions/{id}.
+ *
+ * Entries are replaced or dropped when a {@link SessionChangedEvent} commits. A newer version
+ * is never overwritten by an older one. ACTIVE sessions also expire after a short TTL
+ * (changes made by other instances are not seen here); ENDED sessions no longer change and
+ * are kept much longer. Hits/misses are exported as "cache.*{cache=sessions}" meters, rebuilds
+ * as the "sessions.cache.rebuild" timer.
+ */
+@Component
+@Slf4j
+public class SessionDtoCache {
+
+    private final boolean enabled;
+    private final Cache<String, SessionDTO> sessions;
+    private final Timer rebuildTimer;
+
+    public SessionDtoCache(MeterRegistry meterRegistry,
+                           @Value("${session.cache.enabled:true}") boolean enabled,
+                           @Value("${session.cache.maximum-size:10000}") long maximumSize,
+                           @Value("${session.cache.active-ttl:10s}") Duration activeTtl,
+                           @Value("${session.cache.ended-ttl:1h}") Duration endedTtl) {
+        this.enabled = enabled;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new StatusExpiry(activeTtl, endedTtl))
+                .recordStats()
+                .build();
+        this.rebuildTimer = Timer.builder("sessions.cache.rebuild")
+                .description("Time to load and build a SessionDTO on a cache miss")
+                .register(meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "sessions");
+        log.info("Session cache {} (max size {}, active ttl {}, ended ttl {})",
+                enabled ? "enabled" : "disabled", maximumSize, activeTtl, endedTtl);
+    }
+
+    /**
+     * Returns the cached session, building it on a miss. Concurrent misses for one session
+     * share a single build; exceptions from the loader are not cached.
+     */
+    public SessionDTO get(String sessionId, Function<String, SessionDTO> loader) {
+        Function<String, SessionDTO> timedLoader = id -> rebuildTimer.record(() -> loader.apply(id));
+        if (!enabled) {
+            return timedLoader.apply(sessionId);
+        }
+        return sessions.get(sessionId, timedLoader);
+    }
+
+    public SessionDTO getIfPresent(String sessionId) {
+        return enabled ? sessions.getIfPresent(sessionId) : null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.getSession() == null) {
+            sessions.invalidate(event.getSessionId());
+            return;
+        }
+        sessions.asMap().merge(event.getSessionId(), event.getSession(),
+                (cached, updated) -> updated.getVersion() >= cached.getVersion() ? updated : cached);
+    }
+
+    private static class StatusExpiry implements Expiry<String, SessionDTO> {
+
+        private final long activeTtlNanos;
+        private final long endedTtlNanos;
+
+        StatusExpiry(Duration activeTtl, Duration endedTtl) {
+            this.activeTtlNanos = activeTtl.toNanos();
+            this.endedTtlNanos = endedTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, SessionDTO value, long currentTime) {
+            return Session.SessionStatus.ENDED.name().equals(value.getStatus()) ? endedTtlNanos : activeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, SessionDTO value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, SessionDTO value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
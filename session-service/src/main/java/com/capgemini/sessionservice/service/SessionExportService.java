@@ -0,0 +1,121 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.repository.SessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams sessions to an output stream as NDJSON or Server-Sent Events.
+ *
+ * Sessions are read through a database cursor (SessionRepository#streamByStatus) and turned
+ * into DTOs chunk by chunk (three queries per chunk); after each chunk is written the
+ * persistence context is cleared, so memory use does not depend on the number of sessions.
+ * When the client goes away the failed write ends the transaction, which closes the cursor.
+ */
+@Service
+@Slf4j
+public class SessionExportService {
+
+    public enum Format {
+        NDJSON, SSE
+    }
+
+    private static final byte[] SSE_PREFIX = "data: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SSE_SUFFIX = "\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final SessionRepository sessionRepository;
+    private final SessionDtoAssembler sessionDtoAssembler;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+
+    public SessionExportService(SessionRepository sessionRepository,
+                                SessionDtoAssembler sessionDtoAssembler,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${session.export.chunk-size:200}") int chunkSize) {
+        this.sessionRepository = sessionRepository;
+        this.sessionDtoAssembler = sessionDtoAssembler;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSize = chunkSize;
+    }
+
+    public void export(Session.SessionStatus status, Format format, OutputStream out) throws IOException {
+        try {
+            long exported = readOnlyTransaction.execute(tx -> {
+                try (Stream<Session> sessions = sessionRepository.streamByStatus(status)) {
+                    return writeInChunks(sessions.iterator(), format, out);
+                }
+            });
+            log.info("Exported {} {} sessions as {}", exported, status, format);
+        } catch (UncheckedIOException e) {
+            log.info("Session export aborted: {}", e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    private long writeInChunks(Iterator<Session> sessions, Format format, OutputStream out) {
+        long written = 0;
+        List<Session> chunk = new ArrayList<>(chunkSize);
+        while (sessions.hasNext()) {
+            chunk.add(sessions.next());
+            if (chunk.size() == chunkSize || !sessions.hasNext()) {
+                for (SessionDTO session : sessionDtoAssembler.toDTOs(chunk)) {
+                    write(session, format, out);
+                    written++;
+                }
+                flush(out);
+                chunk.clear();
+                // Detach what this chunk loaded so the persistence context does not grow
+                entityManager.clear();
+            }
+        }
+        return written;
+    }
+
+    private void write(SessionDTO session, Format format, OutputStream out) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(session);
+            if (format == Format.SSE) {
+                out.write(SSE_PREFIX);
+                out.write(json);
+                out.write(SSE_SUFFIX);
+            } else {
+                out.write(json);
+                out.write(NEWLINE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.dto.NotificationReplayDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the last notification.replay.capacity notifications of every session topic so that
+ * reconnecting clients can fetch what they missed instead of reloading the whole session.
+ *
+ * Each /topic/session/{id} notification gets the next sequence number of its session.
+ * Sequences are per instance and restart when an idle session is evicted, so every ring has a
+ * random epoch that is sent along with the sequence. A client that reconnects to another
+ * instance, or after the ring was evicted, presents an epoch this buffer does not know and is
+ * told to resync, as is a client asking for a sequence the buffer can no longer serve.
+ */
+@Component
+public class SessionReplayBuffer {
+
+    private final int capacity;
+    private final Cache<String, Ring> rings;
+
+    public SessionReplayBuffer(MeterRegistry meterRegistry,
+                               @Value("${notification.replay.capacity:256}") int capacity,
+                               @Value("${notification.replay.maximum-sessions:10000}") long maximumSessions,
+                               @Value("${notification.replay.ttl:2h}") Duration ttl) {
+        this.capacity = capacity;
+        this.rings = Caffeine.newBuilder()
+                .maximumSize(maximumSessions)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rings, "notification.replay");
+    }
+
+    /**
+     * Assigns the next sequence number (and the ring's epoch), stores the notification and hands it to the sender.
+     * Sending happens under the session's lock, so subscribers see sequences in order.
+     */
+    public void append(String sessionId, NotificationDTO notification, Consumer<NotificationDTO> sender) {
+        Ring ring = rings.get(sessionId, id -> new Ring(capacity));
+        ring.lock.lock();
+        try {
+            long sequence = ++ring.lastSequence;
+            notification.setSequence(sequence);
+            notification.setEpoch(ring.epoch);
+            ring.items[(int) (sequence % capacity)] = notification;
+            sender.accept(notification);
+        } finally {
+            ring.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the notifications after the given sequence of the given epoch, or a resync marker
+     * when some of them are no longer buffered or the sequence belongs to another epoch.
+     * Clients without a sequence yet (afterSequence 0) get everything buffered.
+     */
+    public NotificationReplayDTO replay(String sessionId, String epoch, long afterSequence) {
+        Ring ring = rings.getIfPresent(sessionId);
+        if (ring == null) {
+            return NotificationReplayDTO.builder()
+                    .sessionId(sessionId)
+                    .afterSequence(afterSequence)
+                    .latestSequence(0)
+                    .resyncRequired(afterSequence > 0)
+                    .notifications(List.of())
+                    .build();
+        }
+
+        ring.lock.lock();
+        try {
+            long latest = ring.lastSequence;
+            long oldest = Math.max(1, latest - capacity + 1);
+            boolean resync = afterSequence > 0 && !Objects.equals(epoch, ring.epoch)
+                    || afterSequence > latest
+                    || afterSequence < oldest - 1;
+
+            List<NotificationDTO> missed = new ArrayList<>();
+            if (!resync) {
+                for (long sequence = afterSequence + 1; sequence <= latest; sequence++) {
+                    missed.add(ring.items[(int) (sequence % capacity)]);
+                }
+            }
+            return NotificationReplayDTO.builder()
+                    .sessionId(sessionId)
+                    .epoch(ring.epoch)
+                    .afterSequence(afterSequence)
+                    .latestSequence(latest)
+                    .resyncRequired(resync)
+                    .notifications(missed)
+                    .build();
+        } finally {
+            ring.lock.unlock();
+        }
+    }
+
+    private static class Ring {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final String epoch = UUID.randomUUID().toString();
+        private final NotificationDTO[] items;
+        private long lastSequence;
+
+        Ring(int capacity) {
+            this.items = new NotificationDTO[capacity];
+        }
+    }
+}
@@ -1,26 +1,42 @@
 package com.capgemini.sessionservice.service;
 
+import com.capgemini.common.dto.CursorPageDTO;
 import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.common.dto.SessionDeltaDTO;
 import com.capgemini.common.dto.RestaurantSubmissionDTO;
 import com.capgemini.common.dto.UserDTO;
 import com.capgemini.sessionservice.dto.NotificationDTO;
 import com.capgemini.sessionservice.entity.RestaurantSubmission;
+import com.capgemini.sessionservice.event.NotificationEvent;
+import com.capgemini.sessionservice.event.SessionChangedEvent;
 import com.capgemini.sessionservice.entity.Session;
 import com.capgemini.sessionservice.repository.RestaurantSubmissionRepository;
+import com.capgemini.sessionservice.repository.SessionCounters;
+import com.capgemini.sessionservice.repository.SessionParticipantRepository;
 import com.capgemini.sessionservice.repository.SessionRepository;
 import com.capgemini.sessionservice.client.UserServiceClient;
 import com.capgemini.common.exception.ResourceNotFoundException;
 import com.capgemini.common.exception.UnauthorizedException;
 import com.capgemini.common.exception.BusinessException;
+import com.capgemini.common.persistence.Uuids;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,28 +46,103 @@ public class SessionService {
 
     private final SessionRepository sessionRepository;
     private final RestaurantSubmissionRepository submissionRepository;
+    private final SessionParticipantRepository participantRepository;
+    private final SessionDtoAssembler sessionDtoAssembler;
+    private final SessionDtoCache sessionDtoCache;
     private final UserServiceClient userServiceClient;
-    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler dbScheduler;
     private final Random random = new Random();
 
-    @Transactional
-    public SessionDTO createSession(String initiatorUserId, List<String> invitedUserIds) {
-        log.info("Creating session - Initiator: {}, Invited: {}", initiatorUserId, invitedUserIds);
+    @Value("${session.pagination.default-limit:50}")
+    private int defaultPageLimit;
+
+    @Value("${session.pagination.max-limit:200}")
+    private int maxPageLimit;
+
+    @Value("${session.bulk-submit.max-items:100}")
+    private int maxBulkSubmissions;
+
+    /**
+     * The User Service checks run first and concurrently; the transaction is only opened
+     * once both have answered, on the bounded DB scheduler instead of a servlet thread.
+     */
+    public Mono<SessionDTO> createSession(String initiatorUserId, List<String> invitedUserIds, LocalDateTime deadline) {
+        log.info("Creating session - Initiator: {}, Invited: {}, Deadline: {}", initiatorUserId, invitedUserIds, deadline);
 
-        boolean canInitiate = userServiceClient.canUserInitiateSession(initiatorUserId);
-        if (!canInitiate) {
-            throw new UnauthorizedException("User is not authorized to initiate a session");
+        if (deadline != null && !deadline.isAfter(LocalDateTime.now())) {
+            return Mono.error(new BusinessException("INVALID_DEADLINE", "Deadline must be in the future"));
         }
 
-        UserDTO initiator = userServiceClient.getUserById(initiatorUserId);
+        // One batch lookup resolves the initiator and warms the user cache for the invitees' joins
+        List<String> userIds = new ArrayList<>();
+        userIds.add(initiatorUserId);
+        if (invitedUserIds != null) {
+            userIds.addAll(invitedUserIds);
+        }
+
+        return Mono.zip(
+                        userServiceClient.canUserInitiateSessionAsync(initiatorUserId),
+                        userServiceClient.getUsersByIdsAsync(userIds))
+                .flatMap(checks -> {
+                    if (!checks.getT1()) {
+                        return Mono.error(new UnauthorizedException("User is not authorized to initiate a session"));
+                    }
+                    UserDTO initiator = checks.getT2().get(initiatorUserId);
+                    if (initiator == null) {
+                        return Mono.error(new ResourceNotFoundException("User", initiatorUserId));
+                    }
+                    return inTransaction(() -> doCreateSession(initiator, invitedUserIds, deadline));
+                });
+    }
+
+    public Mono<SessionDTO> joinSession(String sessionId, String userId) {
+        log.info("User {} joining session {}", userId, sessionId);
+
+        return userServiceClient.getUserByIdAsync(userId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User", userId)))
+                .flatMap(user -> inTransaction(() -> doJoinSession(sessionId, user)));
+    }
+
+    public Mono<RestaurantSubmissionDTO> submitRestaurant(String sessionId, RestaurantSubmissionDTO submissionDTO) {
+        log.info("Submitting restaurant to session {}: {}", sessionId, submissionDTO.getRestaurantName());
+
+        String submittedByUserId = submissionDTO.getSubmittedByUserId();
+        return userServiceClient.getUserByIdAsync(submittedByUserId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User", submittedByUserId)))
+                .flatMap(user -> inTransaction(() -> doSubmitRestaurant(sessionId, submissionDTO, user)));
+    }
+
+    /**
+     * Submits a whole list with one User Service call and one transaction. The rows are written
+     * with JDBC batching, the session counter and version are updated once, and the session gets
+     * a single aggregated RESTAURANT_SUBMITTED notification.
+     */
+    public Mono<List<RestaurantSubmissionDTO>> submitRestaurants(String sessionId, String submittedByUserId,
+                                                                 List<RestaurantSubmissionDTO> restaurants) {
+        log.info("Submitting {} restaurants to session {}", restaurants.size(), sessionId);
+
+        if (restaurants.size() > maxBulkSubmissions) {
+            return Mono.error(new BusinessException("TOO_MANY_SUBMISSIONS",
+                    "At most " + maxBulkSubmissions + " restaurants can be submitted at once"));
+        }
+        return userServiceClient.getUserByIdAsync(submittedByUserId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User", submittedByUserId)))
+                .flatMap(user -> inTransaction(() -> doSubmitRestaurants(sessionId, restaurants, user)));
+    }
 
+    private SessionDTO doCreateSession(UserDTO initiator, List<String> invitedUserIds, LocalDateTime deadline) {
         Session session = new Session();
-        session.setInitiatorUserId(initiatorUserId);
+        session.setInitiatorUserId(initiator.getUserId());
         session.setStatus(Session.SessionStatus.ACTIVE);
-        session.getParticipantIds().add(initiatorUserId);
         session.setCreatedAt(LocalDateTime.now());
+        session.setParticipantCount(1);
+        session.setDeadline(deadline);
+        session.nextVersion();
 
-        session = sessionRepository.save(session);
+        session = sessionRepository.saveAndFlush(session);
+        participantRepository.insertIfAbsent(UUID.fromString(session.getSessionId()), initiator.getUserId(), session.getVersion());
         log.info("Session created: {}", session.getSessionId());
 
         final String sessionId = session.getSessionId();
@@ -64,7 +155,7 @@ public class SessionService {
                         sessionId,
                         initiatorUsername
                 );
-                notificationService.sendPersonalNotification(invitedUserId, invitation);
+                eventPublisher.publishEvent(NotificationEvent.personal(invitedUserId, invitation));
             });
         }
 
@@ -72,76 +163,83 @@ public class SessionService {
                 sessionId,
                 initiatorUsername
         );
-        notificationService.sendGlobalNotification(globalNotif);
+        eventPublisher.publishEvent(NotificationEvent.global(globalNotif));
 
-        return convertToDTO(session);
+        SessionDTO created = sessionDtoAssembler.toDTO(session);
+        eventPublisher.publishEvent(SessionChangedEvent.updated(created));
+        return created;
     }
 
-    @Transactional
-    public SessionDTO joinSession(String sessionId, String userId) {
-        log.info("User {} joining session {}", userId, sessionId);
+    private SessionDTO doJoinSession(String sessionId, UserDTO user) {
+        String userId = user.getUserId();
+
+        // One statement inserts the participant and bumps the counter; the
+        // (session_id, participant_id) key turns a repeated join into a no-op
+        Optional<SessionCounters> joined = sessionRepository.insertParticipant(Uuids.parseOrNil(sessionId), userId);
 
         Session session = sessionRepository.findById(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
 
-        if (session.getStatus() == Session.SessionStatus.ENDED) {
+        if (joined.isEmpty() && session.getStatus() == Session.SessionStatus.ENDED) {
             throw new BusinessException("SESSION_ENDED", "Cannot join a session that has already ended");
         }
 
-        if (!session.getParticipantIds().contains(userId)) {
-            session.getParticipantIds().add(userId);
-            session = sessionRepository.save(session);
-
-            UserDTO user = userServiceClient.getUserById(userId);
-
+        if (joined.isPresent()) {
             final String finalSessionId = session.getSessionId();
             final String username = user.getUsername();
-            final int participantCount = session.getParticipantIds().size();
+            final int participantCount = joined.get().getParticipantCount();
 
             NotificationDTO sessionNotif = NotificationDTO.userJoined(
                     finalSessionId,
                     username,
                     participantCount
             );
-            notificationService.sendSessionNotification(finalSessionId, sessionNotif);
+            eventPublisher.publishEvent(NotificationEvent.session(finalSessionId, sessionNotif));
 
             log.info("User {} joined session {} ({} participants)",
                     userId, finalSessionId, participantCount);
+
+            SessionDTO updated = sessionDtoAssembler.toDTO(session);
+            eventPublisher.publishEvent(SessionChangedEvent.updated(updated));
+            return updated;
         }
 
-        return convertToDTO(session);
+        return sessionDtoAssembler.toDTO(session);
     }
 
-    @Transactional
-    public RestaurantSubmissionDTO submitRestaurant(String sessionId, RestaurantSubmissionDTO submissionDTO) {
-        log.info("Submitting restaurant to session {}: {}", sessionId, submissionDTO.getRestaurantName());
-
-        Session session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
-
-        if (session.getStatus() == Session.SessionStatus.ENDED) {
-            throw new BusinessException("SESSION_ENDED", "Cannot submit to an ended session");
-        }
-
-        if (!session.getParticipantIds().contains(submissionDTO.getSubmittedByUserId())) {
+    private RestaurantSubmissionDTO doSubmitRestaurant(String sessionId, RestaurantSubmissionDTO submissionDTO, UserDTO user) {
+        boolean participant = participantRepository.existsBySessionIdAndParticipantId(
+                sessionId, submissionDTO.getSubmittedByUserId());
+
+        // One statement inserts the submission and bumps the counter
+        RestaurantSubmissionDTO submission = new RestaurantSubmissionDTO(
+                Uuids.timeOrdered().toString(),
+                sanitizeInput(submissionDTO.getRestaurantName()),
+                sanitizeInput(submissionDTO.getAddress()),
+                sanitizeInput(submissionDTO.getDescription()),
+                submissionDTO.getSubmittedByUserId(),
+                sessionId
+        );
+        Optional<SessionCounters> submitted = participant
+                ? sessionRepository.insertSubmission(Uuids.parseOrNil(sessionId),
+                        UUID.fromString(submission.getSubmissionId()),
+                        submission.getRestaurantName(), submission.getAddress(),
+                        submission.getDescription(), submission.getSubmittedByUserId())
+                : Optional.empty();
+
+        if (submitted.isEmpty()) {
+            Session session = sessionRepository.findById(sessionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
+            if (session.getStatus() == Session.SessionStatus.ENDED) {
+                throw new BusinessException("SESSION_ENDED", "Cannot submit to an ended session");
+            }
             throw new UnauthorizedException("User must join the session before submitting");
         }
 
-        RestaurantSubmission submission = new RestaurantSubmission();
-        submission.setRestaurantName(sanitizeInput(submissionDTO.getRestaurantName()));
-        submission.setAddress(sanitizeInput(submissionDTO.getAddress()));
-        submission.setDescription(sanitizeInput(submissionDTO.getDescription()));
-        submission.setSubmittedByUserId(submissionDTO.getSubmittedByUserId());
-        submission.setSession(session);
-
-        submission = submissionRepository.save(submission);
-
-        UserDTO user = userServiceClient.getUserById(submissionDTO.getSubmittedByUserId());
-
-        final String finalSessionId = session.getSessionId();
+        final String finalSessionId = sessionId;
         final String username = user.getUsername();
         final String restaurantName = submission.getRestaurantName();
-        final int totalSubmissions = session.getSubmissions().size() + 1;
+        final int totalSubmissions = submitted.get().getSubmissionCount();
 
         NotificationDTO sessionNotif = NotificationDTO.restaurantSubmitted(
                 finalSessionId,
@@ -149,19 +247,74 @@ public class SessionService {
                 restaurantName,
                 totalSubmissions
         );
-        notificationService.sendSessionNotification(finalSessionId, sessionNotif);
+        eventPublisher.publishEvent(NotificationEvent.session(finalSessionId, sessionNotif));
+        eventPublisher.publishEvent(SessionChangedEvent.invalidated(finalSessionId));
 
         log.info("Restaurant submitted: {} for session {} (Total: {})",
                 restaurantName, finalSessionId, totalSubmissions);
 
-        return convertSubmissionToDTO(submission);
+        return submission;
+    }
+
+    private List<RestaurantSubmissionDTO> doSubmitRestaurants(String sessionId, List<RestaurantSubmissionDTO> restaurants,
+                                                             UserDTO user) {
+        Session session = sessionRepository.findByIdForUpdate(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
+        if (session.getStatus() == Session.SessionStatus.ENDED) {
+            throw new BusinessException("SESSION_ENDED", "Cannot submit to an ended session");
+        }
+        if (!participantRepository.existsBySessionIdAndParticipantId(sessionId, user.getUserId())) {
+            throw new UnauthorizedException("User must join the session before submitting");
+        }
+
+        // The whole list is one change of the session
+        long version = session.nextVersion();
+        LocalDateTime now = LocalDateTime.now();
+        List<RestaurantSubmission> submissions = new ArrayList<>(restaurants.size());
+        for (RestaurantSubmissionDTO restaurant : restaurants) {
+            RestaurantSubmission submission = new RestaurantSubmission();
+            submission.setRestaurantName(sanitizeInput(restaurant.getRestaurantName()));
+            submission.setAddress(sanitizeInput(restaurant.getAddress()));
+            submission.setDescription(sanitizeInput(restaurant.getDescription()));
+            submission.setSubmittedByUserId(user.getUserId());
+            submission.setSession(session);
+            submission.setSessionVersion(version);
+            submission.setCreatedAt(now);
+            submissions.add(submission);
+        }
+        session.setSubmissionCount(session.getSubmissionCount() + submissions.size());
+        session.setLastActivityAt(now);
+
+        // Inserted in batches of hibernate.jdbc.batch_size on flush, followed by a single session update
+        submissionRepository.saveAll(submissions);
+
+        int totalSubmissions = session.getSubmissionCount();
+        int runningTotal = totalSubmissions - submissions.size();
+        List<NotificationDTO> submitted = new ArrayList<>(submissions.size());
+        for (RestaurantSubmission submission : submissions) {
+            submitted.add(NotificationDTO.restaurantSubmitted(
+                    sessionId, user.getUsername(), submission.getRestaurantName(), ++runningTotal));
+        }
+        // Merged here already; NotificationCoalescer sends merged notifications as they are
+        NotificationDTO sessionNotif = submitted.size() == 1
+                ? submitted.get(0)
+                : NotificationDTO.coalesced(sessionId, NotificationDTO.NotificationType.RESTAURANT_SUBMITTED, submitted);
+        eventPublisher.publishEvent(NotificationEvent.session(sessionId, sessionNotif));
+        eventPublisher.publishEvent(SessionChangedEvent.invalidated(sessionId));
+
+        log.info("{} restaurants submitted for session {} (Total: {})",
+                submissions.size(), sessionId, totalSubmissions);
+
+        return submissions.stream()
+                .map(sessionDtoAssembler::toSubmissionDTO)
+                .collect(Collectors.toList());
     }
 
     @Transactional
     public SessionDTO endSession(String sessionId, String userId) {
         log.info("Ending session {} by user {}", sessionId, userId);
 
-        Session session = sessionRepository.findById(sessionId)
+        Session session = sessionRepository.findByIdForUpdate(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
 
         if (!session.getInitiatorUserId().equals(userId)) {
@@ -172,103 +325,244 @@ public class SessionService {
             throw new BusinessException("SESSION_ALREADY_ENDED", "Session is already ended");
         }
 
-        List<RestaurantSubmission> submissions = session.getSubmissions();
-        if (submissions.isEmpty()) {
+        if (session.getSubmissions().isEmpty()) {
             throw new BusinessException("NO_SUBMISSIONS", "No restaurants have been submitted");
         }
 
+        return doEndSession(session);
+    }
+
+    /**
+     * Called by SessionDeadlineScheduler when the deadline has passed: ends the session with the
+     * same random selection as endSession. Without submissions the session ends without a
+     * selection. Does nothing if the session has already ended.
+     */
+    @Transactional
+    public void endSessionAtDeadline(String sessionId) {
+        endWithoutInitiator(sessionId, "deadline reached",
+                () -> NotificationDTO.sessionEndedWithoutSelection(sessionId));
+    }
+
+    /**
+     * Called by SessionArchiveService, in the transaction that locked the idle session: ends it
+     * like endSessionAtDeadline. Returns false if the session has already ended.
+     */
+    @Transactional
+    public boolean endIdleSession(String sessionId) {
+        return endWithoutInitiator(sessionId, "idle",
+                () -> NotificationDTO.sessionEndedWhileIdle(sessionId));
+    }
+
+    private boolean endWithoutInitiator(String sessionId, String reason, Supplier<NotificationDTO> endedWithoutSelection) {
+        Session session = sessionRepository.findByIdForUpdate(sessionId).orElse(null);
+        if (session == null || session.getStatus() == Session.SessionStatus.ENDED) {
+            return false;
+        }
+        log.info("Ending session {} ({})", sessionId, reason);
+
+        if (!session.getSubmissions().isEmpty()) {
+            doEndSession(session);
+            return true;
+        }
+
+        session.setStatus(Session.SessionStatus.ENDED);
+        session.setEndedAt(LocalDateTime.now());
+        session.nextVersion();
+        session = sessionRepository.save(session);
+
+        eventPublisher.publishEvent(NotificationEvent.session(sessionId, endedWithoutSelection.get()));
+        eventPublisher.publishEvent(SessionChangedEvent.updated(sessionDtoAssembler.toDTO(session)));
+        return true;
+    }
+
+    /**
+     * Sends SESSION_ENDING_SOON once per session, even with several instances scheduling
+     * the same deadline.
+     */
+    @Transactional
+    public void sendDeadlineWarning(String sessionId, LocalDateTime deadline) {
+        if (sessionRepository.claimDeadlineWarning(sessionId, Session.SessionStatus.ACTIVE) == 0) {
+            return;
+        }
+        NotificationDTO warning = NotificationDTO.sessionEndingSoon(sessionId, deadline);
+        eventPublisher.publishEvent(NotificationEvent.session(sessionId, warning));
+    }
+
+    private SessionDTO doEndSession(Session session) {
+        List<RestaurantSubmission> submissions = session.getSubmissions();
         RestaurantSubmission selected = submissions.get(random.nextInt(submissions.size()));
         session.setSelectedRestaurant(selected);
         session.setStatus(Session.SessionStatus.ENDED);
         session.setEndedAt(LocalDateTime.now());
+        session.nextVersion();
 
         session = sessionRepository.save(session);
 
         final String finalSessionId = session.getSessionId();
         final String restaurantName = selected.getRestaurantName();
         final String address = selected.getAddress();
-        final List<String> participantIds = new ArrayList<>(session.getParticipantIds());
+        final List<String> participantIds = participantRepository.findParticipantIds(finalSessionId);
 
         NotificationDTO sessionEndNotif = NotificationDTO.sessionEnded(
                 finalSessionId,
                 restaurantName,
                 address
         );
-        notificationService.sendSessionNotification(finalSessionId, sessionEndNotif);
-
-        participantIds.forEach(participantId -> {
-            NotificationDTO personalNotif = NotificationDTO.builder()
-                    .type(NotificationDTO.NotificationType.SESSION_ENDED)
-                    .sessionId(finalSessionId)
-                    .userId(participantId)
-                    .title("Lunch Decided!")
-                    .message("Your group is going to " + restaurantName)
-                    .priority(NotificationDTO.NotificationPriority.HIGH)
-                    .timestamp(LocalDateTime.now())
-                    .data(java.util.Map.of(
-                            "restaurantName", restaurantName,
-                            "address", address != null ? address : "N/A",
-                            "sessionId", finalSessionId
-                    ))
-                    .build();
-
-            notificationService.sendPersonalNotification(participantId, personalNotif);
-        });
+        eventPublisher.publishEvent(NotificationEvent.session(finalSessionId, sessionEndNotif));
+
+        NotificationDTO personalNotif = NotificationDTO.builder()
+                .type(NotificationDTO.NotificationType.SESSION_ENDED)
+                .sessionId(finalSessionId)
+                .title("Lunch Decided!")
+                .message("Your group is going to " + restaurantName)
+                .priority(NotificationDTO.NotificationPriority.HIGH)
+                .timestamp(LocalDateTime.now())
+                .data(java.util.Map.of(
+                        "restaurantName", restaurantName,
+                        "address", address != null ? address : "N/A",
+                        "sessionId", finalSessionId
+                ))
+                .build();
+
+        // Delivered to every participant by the dispatcher once the session end is committed
+        eventPublisher.publishEvent(NotificationEvent.personal(participantIds, personalNotif));
 
         log.info("Session {} ended. Selected restaurant: {}", finalSessionId, restaurantName);
 
-        return convertToDTO(session);
-    }
-
-    public SessionDTO getSession(String sessionId) {
-        Session session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
-        return convertToDTO(session);
+        SessionDTO ended = sessionDtoAssembler.toDTO(session);
+        eventPublisher.publishEvent(SessionChangedEvent.updated(ended));
+        return ended;
     }
 
-    public List<SessionDTO> getAllActiveSessions() {
-        return sessionRepository.findByStatus(Session.SessionStatus.ACTIVE).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-    }
-
-    public List<RestaurantSubmissionDTO> getSessionSubmissions(String sessionId) {
-        return submissionRepository.findBySession_SessionId(sessionId).stream()
-                .map(this::convertSubmissionToDTO)
-                .collect(Collectors.toList());
+    /**
+     * Current version of the session, for conditional GETs: answered from the SessionDtoCache
+     * or by a single-column query, without loading participants or submissions.
+     */
+    public Optional<Long> findSessionVersion(String sessionId) {
+        SessionDTO cached = sessionDtoCache.getIfPresent(sessionId);
+        if (cached != null) {
+            return Optional.of(cached.getVersion());
+        }
+        return sessionRepository.findVersionById(sessionId);
     }
 
-    private String sanitizeInput(String input) {
-        if (input == null) return null;
-        return input.replaceAll("[<>\"']", "").trim();
+    /**
+     * Served from the SessionDtoCache; the database is only read on a miss.
+     */
+    public SessionDTO getSession(String sessionId) {
+        // The loader runs without a transaction; everything the DTO needs is fetched eagerly
+        return sessionDtoCache.get(sessionId, id -> {
+            Session session = sessionRepository.findWithSelectedRestaurantById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Session", id));
+            return sessionDtoAssembler.toDTO(session);
+        });
     }
 
-    private SessionDTO convertToDTO(Session session) {
-        List<RestaurantSubmissionDTO> submissionDTOs = session.getSubmissions().stream()
-                .map(this::convertSubmissionToDTO)
-                .collect(Collectors.toList());
+    /**
+     * Only what changed after sinceVersion: two indexed queries on the version columns
+     * instead of loading every participant and submission.
+     */
+    @Transactional(readOnly = true)
+    public SessionDeltaDTO getSessionChanges(String sessionId, long sinceVersion) {
+        Session session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
 
-        return new SessionDTO(
+        boolean changed = session.getVersion() > sinceVersion;
+        List<String> addedParticipantIds = changed
+                ? participantRepository.findParticipantIdsJoinedAfter(sessionId, sinceVersion)
+                : List.of();
+        List<RestaurantSubmissionDTO> addedSubmissions = changed
+                ? submissionRepository.findBySession_SessionIdAndSessionVersionGreaterThan(sessionId, sinceVersion).stream()
+                        .map(sessionDtoAssembler::toSubmissionDTO)
+                        .collect(Collectors.toList())
+                : List.of();
+
+        return new SessionDeltaDTO(
                 session.getSessionId(),
-                session.getInitiatorUserId(),
+                sinceVersion,
+                session.getVersion(),
                 session.getStatus().name(),
-                session.getParticipantIds(),
-                submissionDTOs,
+                addedParticipantIds,
+                addedSubmissions,
                 session.getSelectedRestaurant() != null ?
-                        convertSubmissionToDTO(session.getSelectedRestaurant()) : null,
-                session.getCreatedAt(),
+                        sessionDtoAssembler.toSubmissionDTO(session.getSelectedRestaurant()) : null,
                 session.getEndedAt()
         );
     }
 
-    private RestaurantSubmissionDTO convertSubmissionToDTO(RestaurantSubmission submission) {
-        return new RestaurantSubmissionDTO(
-                submission.getSubmissionId(),
-                submission.getRestaurantName(),
-                submission.getAddress(),
-                submission.getDescription(),
-                submission.getSubmittedByUserId(),
-                submission.getSession().getSessionId()
+    /**
+     * One keyset page of active sessions, oldest first.
+     * Three queries regardless of the page size (sessions, participants, submissions).
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SessionDTO> getActiveSessions(String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        PageCursor position = PageCursor.decode(cursor);
+
+        // One extra row tells whether there is a next page
+        List<Session> sessions = position == null
+                ? sessionRepository.findWithSelectedRestaurantByStatus(
+                        Session.SessionStatus.ACTIVE, Limit.of(pageSize + 1))
+                : sessionRepository.findWithSelectedRestaurantByStatusAfter(
+                        Session.SessionStatus.ACTIVE, position.createdAt(), position.id(), Limit.of(pageSize + 1));
+
+        boolean hasMore = sessions.size() > pageSize;
+        List<Session> page = hasMore ? sessions.subList(0, pageSize) : sessions;
+        Session last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return new CursorPageDTO<>(
+                sessionDtoAssembler.toDTOs(page),
+                hasMore ? new PageCursor(last.getCreatedAt(), last.getSessionId()).encode() : null,
+                pageSize
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * One keyset page of the session's submissions in submission order.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RestaurantSubmissionDTO> getSessionSubmissions(String sessionId, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        PageCursor position = PageCursor.decode(cursor);
+
+        List<RestaurantSubmission> submissions = position == null
+                ? submissionRepository.findPageBySessionId(sessionId, Limit.of(pageSize + 1))
+                : submissionRepository.findPageBySessionIdAfter(
+                        sessionId, position.createdAt(), position.id(), Limit.of(pageSize + 1));
+
+        boolean hasMore = submissions.size() > pageSize;
+        List<RestaurantSubmission> page = hasMore ? submissions.subList(0, pageSize) : submissions;
+        RestaurantSubmission last = page.isEmpty() ? null : page.get(page.size() - 1);
+
+        return new CursorPageDTO<>(
+                page.stream()
+                        .map(sessionDtoAssembler::toSubmissionDTO)
+                        .collect(Collectors.toList()),
+                hasMore ? new PageCursor(last.getCreatedAt(), last.getSubmissionId()).encode() : null,
+                pageSize
+        );
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageLimit;
+        }
+        if (limit < 1) {
+            throw new BusinessException("INVALID_LIMIT", "limit must be at least 1");
+        }
+        return Math.min(limit, maxPageLimit);
+    }
+
+    /**
+     * Runs the given work in a transaction on the DB scheduler, off the calling thread.
+     */
+    private <T> Mono<T> inTransaction(Supplier<T> work) {
+        return Mono.fromCallable(() -> transactionTemplate.execute(status -> work.get()))
+                .subscribeOn(dbScheduler);
+    }
+
+    private String sanitizeInput(String input) {
+        if (input == null) return null;
+        return input.replaceAll("[<>\"']", "").trim();
+    }
+}
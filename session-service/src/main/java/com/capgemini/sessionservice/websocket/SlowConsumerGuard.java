@@ -0,0 +1,232 @@
+package com.capgemini.sessionservice.websocket;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Protects the broker from slow WebSocket clients.
+ *
+ * Counts, per connection, the STOMP MESSAGE frames handed to the client outbound channel that
+ * have not been written to the socket yet (outbound executor queue plus the send buffer of the
+ * connection). Above shed-threshold LOW and NORMAL notifications for that connection are dropped
+ * while HIGH and URGENT still go through; above disconnect-threshold the connection is closed
+ * with SESSION_NOT_RELIABLE so the client reconnects and catches up.
+ *
+ * The priority is read from the "priority" native header set by NotificationService;
+ * messages without it count as NORMAL.
+ */
+@Component
+@Slf4j
+public class SlowConsumerGuard implements ChannelInterceptor {
+
+    public static final String PRIORITY_HEADER = "priority";
+
+    private static final byte[] MESSAGE_COMMAND = "MESSAGE".getBytes(StandardCharsets.UTF_8);
+
+    private final int shedThreshold;
+    private final int disconnectThreshold;
+    private final Map<String, Backlog> backlogs = new ConcurrentHashMap<>();
+
+    private final Map<NotificationDTO.NotificationPriority, Counter> dropped =
+            new EnumMap<>(NotificationDTO.NotificationPriority.class);
+    private final Counter slowDisconnects;
+    private final DistributionSummary highWaterMarks;
+
+    public SlowConsumerGuard(MeterRegistry meterRegistry,
+                             @Value("${websocket.outbound.shed-threshold:100}") int shedThreshold,
+                             @Value("${websocket.outbound.disconnect-threshold:1000}") int disconnectThreshold) {
+        this.shedThreshold = shedThreshold;
+        this.disconnectThreshold = disconnectThreshold;
+
+        for (NotificationDTO.NotificationPriority priority : NotificationDTO.NotificationPriority.values()) {
+            dropped.put(priority, Counter.builder("websocket.outbound.dropped")
+                    .description("Messages dropped for connections over the shed threshold")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+        this.slowDisconnects = Counter.builder("websocket.outbound.slow-disconnects")
+                .description("Connections closed because they could not keep up")
+                .register(meterRegistry);
+        this.highWaterMarks = DistributionSummary.builder("websocket.outbound.backlog.high-water")
+                .description("Largest outbound backlog of each closed connection")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.backlog.max", backlogs, this::currentMaxBacklog)
+                .description("Largest outbound backlog over the open connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decorator factory for WebSocketTransportRegistration: tracks writes of each connection.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                Backlog backlog = new Backlog();
+                backlogs.put(session.getId(), backlog);
+                super.afterConnectionEstablished(new TrackingSession(session, backlog));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                Backlog backlog = backlogs.remove(session.getId());
+                if (backlog != null) {
+                    highWaterMarks.record(backlog.highWater);
+                }
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    slowDisconnects.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE || accessor.getSessionId() == null) {
+            return message;
+        }
+        Backlog backlog = backlogs.get(accessor.getSessionId());
+        if (backlog == null) {
+            return message;
+        }
+
+        int pending = backlog.pending.get();
+        if (pending >= disconnectThreshold) {
+            backlog.closeSlowSession();
+            return null;
+        }
+        if (pending >= shedThreshold) {
+            NotificationDTO.NotificationPriority priority = priorityOf(accessor);
+            if (priority == NotificationDTO.NotificationPriority.LOW
+                    || priority == NotificationDTO.NotificationPriority.NORMAL) {
+                dropped.get(priority).increment();
+                return null;
+            }
+        }
+
+        backlog.enqueued();
+        return message;
+    }
+
+    private NotificationDTO.NotificationPriority priorityOf(SimpMessageHeaderAccessor accessor) {
+        String priority = accessor.getFirstNativeHeader(PRIORITY_HEADER);
+        if (priority == null) {
+            return NotificationDTO.NotificationPriority.NORMAL;
+        }
+        try {
+            return NotificationDTO.NotificationPriority.valueOf(priority);
+        } catch (IllegalArgumentException e) {
+            return NotificationDTO.NotificationPriority.NORMAL;
+        }
+    }
+
+    private double currentMaxBacklog(Map<String, Backlog> backlogs) {
+        return backlogs.values().stream()
+                .mapToInt(backlog -> backlog.pending.get())
+                .max()
+                .orElse(0);
+    }
+
+    private static boolean isMessageFrame(WebSocketMessage<?> message) {
+        if (message instanceof TextMessage text) {
+            return text.getPayload().startsWith("MESSAGE");
+        }
+        if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload();
+            if (payload.remaining() < MESSAGE_COMMAND.length) {
+                return false;
+            }
+            for (int i = 0; i < MESSAGE_COMMAND.length; i++) {
+                if (payload.get(payload.position() + i) != MESSAGE_COMMAND[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static class Backlog {
+
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile int highWater;
+        private volatile WebSocketSession session;
+        private volatile boolean closing;
+
+        void enqueued() {
+            int current = pending.incrementAndGet();
+            if (current > highWater) {
+                highWater = current;
+            }
+        }
+
+        void written() {
+            pending.updateAndGet(current -> Math.max(current - 1, 0));
+        }
+
+        void closeSlowSession() {
+            if (closing || session == null) {
+                return;
+            }
+            closing = true;
+            log.warn("Closing slow WebSocket session {} ({} messages pending)", session.getId(), pending.get());
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.debug("Failed to close slow WebSocket session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private static class TrackingSession extends WebSocketSessionDecorator {
+
+        private final Backlog backlog;
+
+        TrackingSession(WebSocketSession session, Backlog backlog) {
+            super(session);
+            this.backlog = backlog;
+            backlog.session = session;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                if (isMessageFrame(message)) {
+                    backlog.written();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+-- Session Service schema as previously created by ddl-auto: update.
+-- Every statement is idempotent so that databases created by Hibernate are adopted as they are.
+
+CREATE TABLE IF NOT EXISTS sessions (
+    session_id             VARCHAR(255) NOT NULL PRIMARY KEY,
+    initiator_user_id      VARCHAR(255) NOT NULL,
+    status                 VARCHAR(255) NOT NULL,
+    selected_restaurant_id VARCHAR(255),
+    created_at             TIMESTAMP(6) NOT NULL,
+    ended_at               TIMESTAMP(6),
+    version                BIGINT       NOT NULL DEFAULT 0,
+    participant_count      INTEGER      NOT NULL DEFAULT 0,
+    submission_count       INTEGER      NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS restaurant_submissions (
+    submission_id        VARCHAR(255)  NOT NULL PRIMARY KEY,
+    restaurant_name      VARCHAR(200)  NOT NULL,
+    address              VARCHAR(500),
+    description          VARCHAR(1000),
+    submitted_by_user_id VARCHAR(255)  NOT NULL,
+    session_id           VARCHAR(255)  NOT NULL,
+    session_version      BIGINT        NOT NULL DEFAULT 0,
+    created_at           TIMESTAMP(6)  NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS session_participants (
+    session_id     VARCHAR(255) NOT NULL,
+    participant_id VARCHAR(255) NOT NULL,
+    joined_version BIGINT       NOT NULL DEFAULT 0,
+    joined_at      TIMESTAMP(6),
+    PRIMARY KEY (session_id, participant_id)
+);
+
+-- Columns added after the first releases; older Hibernate-created tables may lack them
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS participant_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS submission_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE restaurant_submissions ADD COLUMN IF NOT EXISTS session_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE restaurant_submissions ADD COLUMN IF NOT EXISTS created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE session_participants ADD COLUMN IF NOT EXISTS joined_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE session_participants ADD COLUMN IF NOT EXISTS joined_at TIMESTAMP(6);
+
+DO $$
+BEGIN
+    -- The join statements rely on ON CONFLICT (session_id, participant_id); the participants table
+    -- of the old element collection had no key
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'session_participants'::regclass AND contype = 'p') THEN
+        -- Nothing stopped two concurrent joins of one user from both being stored
+        DELETE FROM session_participants WHERE participant_id IS NULL;
+        DELETE FROM session_participants a USING session_participants b
+        WHERE a.session_id = b.session_id AND a.participant_id = b.participant_id AND a.ctid > b.ctid;
+        ALTER TABLE session_participants ADD PRIMARY KEY (session_id, participant_id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'restaurant_submissions'::regclass AND contype = 'f') THEN
+        ALTER TABLE restaurant_submissions
+            ADD CONSTRAINT fk_submissions_session FOREIGN KEY (session_id) REFERENCES sessions (session_id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'sessions'::regclass AND contype = 'f') THEN
+        ALTER TABLE sessions
+            ADD CONSTRAINT fk_sessions_selected_restaurant
+                FOREIGN KEY (selected_restaurant_id) REFERENCES restaurant_submissions (submission_id);
+    END IF;
+END $$;
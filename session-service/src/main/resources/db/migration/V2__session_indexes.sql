@@ -0,0 +1,27 @@
+-- Indexes for the queries of SessionRepository, RestaurantSubmissionRepository and
+-- SessionParticipantRepository; until now only the primary keys were indexed.
+
+-- Active session listing: WHERE status = 'ACTIVE' ORDER BY created_at, session_id (keyset)
+CREATE INDEX IF NOT EXISTS idx_sessions_active_created
+    ON sessions (created_at, session_id)
+    WHERE status = 'ACTIVE';
+
+-- findByStatus / export of any status in the same order
+CREATE INDEX IF NOT EXISTS idx_sessions_status_created
+    ON sessions (status, created_at, session_id);
+
+-- findByInitiatorUserId
+CREATE INDEX IF NOT EXISTS idx_sessions_initiator
+    ON sessions (initiator_user_id);
+
+-- findBySession_SessionId and the keyset pages of a session's submissions
+CREATE INDEX IF NOT EXISTS idx_submissions_session_created
+    ON restaurant_submissions (session_id, created_at, submission_id);
+
+-- Submissions added after a version (sinceVersion) and the listing order of SessionDtoAssembler
+CREATE INDEX IF NOT EXISTS idx_submissions_session_version
+    ON restaurant_submissions (session_id, session_version);
+
+-- Participants in join order and participants joined after a version
+CREATE INDEX IF NOT EXISTS idx_participants_session_version
+    ON session_participants (session_id, joined_version);
@@ -0,0 +1,7 @@
+-- participant_count and submission_count were added with default 0;
+-- sessions created before that get their real counts.
+UPDATE sessions s
+SET participant_count = (SELECT COUNT(*) FROM session_participants p WHERE p.session_id = s.session_id),
+    submission_count  = (SELECT COUNT(*) FROM restaurant_submissions r WHERE r.session_id = s.session_id)
+WHERE s.participant_count = 0
+  AND s.submission_count = 0;
@@ -0,0 +1,37 @@
+-- Generated keys become native uuid columns (16 bytes instead of 36+ byte strings).
+-- Existing values were generated as UUID strings and convert as they are. Rewrites the tables.
+
+-- Foreign keys must go while both sides change type; Hibernate-created ones have generated names
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN SELECT conrelid::regclass AS table_name, conname
+              FROM pg_constraint
+              WHERE contype = 'f'
+                AND conrelid IN ('sessions'::regclass,
+                                 'restaurant_submissions'::regclass,
+                                 'session_participants'::regclass)
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE sessions
+    ALTER COLUMN session_id TYPE UUID USING session_id::uuid,
+    ALTER COLUMN selected_restaurant_id TYPE UUID USING selected_restaurant_id::uuid;
+
+ALTER TABLE restaurant_submissions
+    ALTER COLUMN submission_id TYPE UUID USING submission_id::uuid,
+    ALTER COLUMN session_id TYPE UUID USING session_id::uuid;
+
+ALTER TABLE session_participants
+    ALTER COLUMN session_id TYPE UUID USING session_id::uuid;
+
+ALTER TABLE restaurant_submissions
+    ADD CONSTRAINT fk_submissions_session FOREIGN KEY (session_id) REFERENCES sessions (session_id);
+ALTER TABLE sessions
+    ADD CONSTRAINT fk_sessions_selected_restaurant
+        FOREIGN KEY (selected_restaurant_id) REFERENCES restaurant_submissions (submission_id);
+ALTER TABLE session_participants
+    ADD CONSTRAINT fk_participants_session FOREIGN KEY (session_id) REFERENCES sessions (session_id);
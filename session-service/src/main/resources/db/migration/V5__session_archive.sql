@@ -0,0 +1,61 @@
+-- Idle tracking for ACTIVE sessions and time-partitioned history tables for archived ones
+-- (see SessionArchiveService).
+
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS last_activity_at TIMESTAMP(6);
+UPDATE sessions s
+SET last_activity_at = GREATEST(
+        s.created_at,
+        (SELECT MAX(r.created_at) FROM restaurant_submissions r WHERE r.session_id = s.session_id),
+        (SELECT MAX(p.joined_at) FROM session_participants p WHERE p.session_id = s.session_id))
+WHERE s.last_activity_at IS NULL;
+ALTER TABLE sessions
+    ALTER COLUMN last_activity_at SET DEFAULT CURRENT_TIMESTAMP,
+    ALTER COLUMN last_activity_at SET NOT NULL;
+
+-- Idle ACTIVE sessions and ENDED sessions due for archival, oldest first
+CREATE INDEX IF NOT EXISTS idx_sessions_active_last_activity
+    ON sessions (last_activity_at)
+    WHERE status = 'ACTIVE';
+CREATE INDEX IF NOT EXISTS idx_sessions_ended_at
+    ON sessions (ended_at)
+    WHERE status = 'ENDED';
+
+-- Partitioned by the month the session ended; SessionArchiveRepository creates the partitions
+CREATE TABLE IF NOT EXISTS sessions_history (
+    session_id             UUID         NOT NULL,
+    initiator_user_id      VARCHAR(255) NOT NULL,
+    selected_restaurant_id UUID,
+    created_at             TIMESTAMP(6) NOT NULL,
+    ended_at               TIMESTAMP(6) NOT NULL,
+    last_activity_at       TIMESTAMP(6) NOT NULL,
+    version                BIGINT       NOT NULL,
+    participant_count      INTEGER      NOT NULL,
+    submission_count       INTEGER      NOT NULL,
+    archived_at            TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (session_id, ended_at)
+) PARTITION BY RANGE (ended_at);
+
+CREATE TABLE IF NOT EXISTS restaurant_submissions_history (
+    submission_id        UUID          NOT NULL,
+    session_id           UUID          NOT NULL,
+    session_ended_at     TIMESTAMP(6)  NOT NULL,
+    restaurant_name      VARCHAR(200)  NOT NULL,
+    address              VARCHAR(500),
+    description          VARCHAR(1000),
+    submitted_by_user_id VARCHAR(255)  NOT NULL,
+    session_version      BIGINT        NOT NULL,
+    created_at           TIMESTAMP(6)  NOT NULL,
+    PRIMARY KEY (submission_id, session_ended_at)
+) PARTITION BY RANGE (session_ended_at);
+
+CREATE INDEX IF NOT EXISTS idx_submissions_history_session
+    ON restaurant_submissions_history (session_id, session_version);
+
+CREATE TABLE IF NOT EXISTS session_participants_history (
+    session_id       UUID         NOT NULL,
+    participant_id   VARCHAR(255) NOT NULL,
+    session_ended_at TIMESTAMP(6) NOT NULL,
+    joined_version   BIGINT       NOT NULL,
+    joined_at        TIMESTAMP(6),
+    PRIMARY KEY (session_id, participant_id, session_ended_at)
+) PARTITION BY RANGE (session_ended_at);
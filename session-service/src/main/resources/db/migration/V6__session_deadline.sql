@@ -0,0 +1,8 @@
+-- Optional deadline of a session (see SessionDeadlineScheduler)
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS deadline TIMESTAMP(6);
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS deadline_warning_sent BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Pending deadlines reloaded at startup
+CREATE INDEX IF NOT EXISTS idx_sessions_active_deadline
+    ON sessions (deadline, session_id)
+    WHERE status = 'ACTIVE' AND deadline IS NOT NULL;
@@ -0,0 +1,138 @@
+package com.capgemini.sessionservice.client;
+
+import com.capgemini.common.dto.UserDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TTLs of found and missing users, driven by a fake ticker.
+ */
+class UserLookupCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(30);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private UserLookupCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserLookupCache(meterRegistry, true, 100, TTL, NEGATIVE_TTL, nanos::get);
+    }
+
+    @Test
+    void getUser_WhenCached_ShouldNotCallLoaderAgainWithinTtl() {
+        CountingLoader loader = new CountingLoader(id -> Mono.just(Optional.of(user(id))));
+
+        assertEquals("user-1", cache.getUser("user-1", loader).block().orElseThrow().getUserId());
+        advance(TTL.minusSeconds(1));
+        assertEquals("user-1", cache.getUser("user-1", loader).block().orElseThrow().getUserId());
+
+        assertEquals(1, loader.calls.get());
+        assertEquals(1.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+
+        advance(Duration.ofSeconds(2));
+        cache.getUser("user-1", loader).block();
+        assertEquals(2, loader.calls.get());
+    }
+
+    @Test
+    void getUser_WhenNotFound_ShouldCacheMissingUserForNegativeTtlOnly() {
+        CountingLoader loader = new CountingLoader(id -> Mono.just(Optional.empty()));
+
+        assertTrue(cache.getUser("ghost", loader).block().isEmpty());
+        assertTrue(cache.isKnownMissing("ghost"));
+
+        advance(NEGATIVE_TTL.minusSeconds(1));
+        assertTrue(cache.getUser("ghost", loader).block().isEmpty());
+        assertEquals(1, loader.calls.get());
+
+        advance(Duration.ofSeconds(2));
+        assertFalse(cache.isKnownMissing("ghost"));
+        cache.getUser("ghost", loader).block();
+        assertEquals(2, loader.calls.get());
+    }
+
+    @Test
+    void markMissing_ShouldExpireAfterNegativeTtl() {
+        cache.markMissing("ghost");
+        assertTrue(cache.isKnownMissing("ghost"));
+
+        advance(NEGATIVE_TTL.plusSeconds(1));
+        assertFalse(cache.isKnownMissing("ghost"));
+    }
+
+    @Test
+    void getUser_WhenUserServiceFails_ShouldNotCacheFailure() {
+        CountingLoader failing = new CountingLoader(id -> Mono.error(
+                WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE.value(), "Unavailable", null, null, null)));
+
+        assertThrows(WebClientResponseException.class, () -> cache.getUser("user-1", failing).block());
+        assertFalse(cache.isKnownMissing("user-1"));
+
+        CountingLoader recovered = new CountingLoader(id -> Mono.just(Optional.of(user(id))));
+        assertTrue(cache.getUser("user-1", recovered).block().isPresent());
+        assertEquals(1, failing.calls.get());
+        assertEquals(1, recovered.calls.get());
+    }
+
+    @Test
+    void canInitiate_WhenUserCached_ShouldAnswerWithoutLoader() {
+        cache.getUser("user-1", id -> Mono.just(Optional.of(user(id)))).block();
+        CountingLoader unused = new CountingLoader(id -> Mono.error(new IllegalStateException()));
+
+        assertTrue(cache.canInitiate("user-1", id -> unused.apply(id).map(Optional::isPresent)).block());
+        assertEquals(0, unused.calls.get());
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "user-service.users")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static UserDTO user(String userId) {
+        UserDTO user = new UserDTO();
+        user.setUserId(userId);
+        user.setUsername("name-" + userId);
+        user.setCanInitiateSession(true);
+        return user;
+    }
+
+    private static class CountingLoader implements Function<String, Mono<Optional<UserDTO>>> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Function<String, Mono<Optional<UserDTO>>> delegate;
+
+        CountingLoader(Function<String, Mono<Optional<UserDTO>>> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Mono<Optional<UserDTO>> apply(String userId) {
+            calls.incrementAndGet();
+            return delegate.apply(userId);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.capgemini.sessionservice.client;
+
+import com.capgemini.common.dto.UserDTO;
+import com.capgemini.common.exception.ServiceUnavailableException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunked batch lookups against a stubbed User Service.
+ */
+class UserServiceClientTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<List<String>> batchRequests = new ArrayList<>();
+    private final Set<String> failingIds = new HashSet<>();
+
+    private UserServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(this::exchange)
+                .build();
+        UserLookupCache cache = new UserLookupCache(new SimpleMeterRegistry(), true, 1000,
+                Duration.ofMinutes(10), Duration.ofSeconds(30));
+
+        client = new UserServiceClient(webClient, cache);
+        ReflectionTestUtils.setField(client, "batchSize", 2);
+        ReflectionTestUtils.setField(client, "batchConcurrency", 1);
+    }
+
+    @Test
+    void getUsersByIds_ShouldSplitIntoChunksAndLeaveOutUnknownUsers() {
+        Map<String, UserDTO> users = client.getUsersByIds(List.of("user-1", "user-2", "ghost-3", "user-4", "user-5"));
+
+        // The missing IDs come from the cache as a set, so only the chunk sizes are fixed
+        assertEquals(List.of(2, 2, 1), batchRequests.stream().map(List::size).toList());
+        assertEquals(Set.of("user-1", "user-2", "ghost-3", "user-4", "user-5"), requestedIds());
+        assertEquals(Set.of("user-1", "user-2", "user-4", "user-5"), users.keySet());
+    }
+
+    @Test
+    void getUsersByIds_WhenChunkFails_ShouldFailInsteadOfReportingNoUsers() {
+        failingIds.add("user-4");
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> client.getUsersByIds(List.of("user-1", "user-2", "user-3", "user-4")));
+        assertThrows(ServiceUnavailableException.class,
+                () -> client.getUsersByIdsAsync(List.of("user-4")).block());
+    }
+
+    @Test
+    void getUsersByIds_WhenChunkFailed_ShouldKeepSuccessfulChunksCached() {
+        failingIds.add("user-4");
+        assertThrows(ServiceUnavailableException.class,
+                () -> client.getUsersByIds(List.of("user-1", "user-2", "user-3", "user-4")));
+        List<String> failedChunk = batchRequests.stream()
+                .filter(chunk -> chunk.contains("user-4"))
+                .findFirst()
+                .orElseThrow();
+
+        failingIds.clear();
+        batchRequests.clear();
+        Map<String, UserDTO> users = client.getUsersByIds(List.of("user-1", "user-2", "user-3", "user-4"));
+
+        assertEquals(1, batchRequests.size());
+        assertEquals(Set.copyOf(failedChunk), Set.copyOf(batchRequests.get(0)));
+        assertEquals(4, users.size());
+    }
+
+    private Set<String> requestedIds() {
+        Set<String> ids = new HashSet<>();
+        batchRequests.forEach(ids::addAll);
+        return ids;
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request) {
+        List<String> ids = requestedIds(request);
+        batchRequests.add(ids);
+        if (ids.stream().anyMatch(failingIds::contains)) {
+            return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        }
+
+        List<UserDTO> found = ids.stream()
+                .filter(id -> id.startsWith("user-"))
+                .map(id -> new UserDTO(id, "name-" + id, id + "@example.com", true))
+                .toList();
+        try {
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(objectMapper.writeValueAsString(found))
+                    .build());
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+    }
+
+    private List<String> requestedIds(ClientRequest request) {
+        MockClientHttpRequest body = new MockClientHttpRequest(request.method(), request.url());
+        request.body().insert(body, new BodyInserter.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return ExchangeStrategies.withDefaults().messageWriters();
+            }
+
+            @Override
+            public Optional<ServerHttpRequest> serverRequest() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Map<String, Object> hints() {
+                return Map.of();
+            }
+        }).block();
+        try {
+            return objectMapper.readValue(body.getBodyAsString().block(), new TypeReference<>() { });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.capgemini.sessionservice.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The User Service client as configured, against a local Reactor Netty server that records
+ * which client connection each request came in on.
+ */
+class WebClientConfigTest {
+
+    private static final int MAX_CONNECTIONS = 2;
+
+    private final WebClientConfig config = new WebClientConfig();
+    private final Set<InetSocketAddress> clientAddresses = ConcurrentHashMap.newKeySet();
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/api/users/{id}", (request, response) -> {
+                            clientAddresses.add(request.remoteAddress());
+                            return response.sendString(Mono.just(request.param("id")));
+                        })
+                        .get("/slow", (request, response) -> response.sendString(
+                                Mono.just("late").delayElement(Duration.ofSeconds(2)))))
+                .bindNow();
+        connectionProvider = config.userServiceConnectionProvider(
+                MAX_CONNECTIONS, 100, Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        server.disposeNow();
+    }
+
+    @Test
+    void userServiceWebClient_ShouldSpreadConcurrentCallsOverTheBoundedPool() {
+        WebClient client = client(Duration.ofSeconds(2));
+
+        List<String> users = Flux.range(1, 20)
+                .flatMap(i -> client.get()
+                        .uri("/api/users/{id}", "user-" + i)
+                        .retrieve()
+                        .bodyToMono(String.class))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        // Calls beyond the pool size wait for a connection instead of opening more
+        assertEquals(20, users.size());
+        assertTrue(clientAddresses.size() <= MAX_CONNECTIONS, clientAddresses.size() + " connections");
+    }
+
+    @Test
+    void userServiceWebClient_WhenResponseSlowerThanTimeout_ShouldFailFast() {
+        WebClient client = client(Duration.ofMillis(200));
+
+        long start = System.nanoTime();
+        assertThrows(WebClientRequestException.class, () -> client.get()
+                .uri("/slow")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(Duration.ofSeconds(5)));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    private WebClient client(Duration responseTimeout) {
+        return config.userServiceWebClient(WebClient.builder(), connectionProvider,
+                "http://localhost:" + server.port(), Duration.ofSeconds(1), responseTimeout, false);
+    }
+}
@@ -0,0 +1,110 @@
+package com.capgemini.sessionservice.controller;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.dto.NotificationReplayDTO;
+import com.capgemini.sessionservice.service.NotificationPayloadEncoder;
+import com.capgemini.sessionservice.service.NotificationService;
+import com.capgemini.sessionservice.service.SessionReplayBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Catch-up over REST and STOMP against a real replay buffer.
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationControllerTest {
+
+    private static final String SESSION_ID = "session-1";
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private NotificationPayloadEncoder payloadEncoder;
+
+    private NotificationService notificationService;
+    private NotificationController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        SessionReplayBuffer replayBuffer = new SessionReplayBuffer(new SimpleMeterRegistry(), 16, 100, Duration.ofHours(2));
+        notificationService = new NotificationService(messagingTemplate, payloadEncoder, replayBuffer);
+        controller = new NotificationController(notificationService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void getSessionNotifications_ShouldReturnNotificationsAfterSequence() throws Exception {
+        String epoch = sendSessionNotifications(3);
+
+        mockMvc.perform(get("/api/notifications/session/{sessionId}", SESSION_ID)
+                        .param("epoch", epoch)
+                        .param("afterSequence", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.epoch").value(epoch))
+                .andExpect(jsonPath("$.latestSequence").value(3))
+                .andExpect(jsonPath("$.resyncRequired").value(false))
+                .andExpect(jsonPath("$.notifications.length()").value(2))
+                .andExpect(jsonPath("$.notifications[0].sequence").value(2))
+                .andExpect(jsonPath("$.notifications[1].message").value("message 3"));
+    }
+
+    @Test
+    void getSessionNotifications_WhenEpochUnknown_ShouldRequireResync() throws Exception {
+        sendSessionNotifications(3);
+
+        mockMvc.perform(get("/api/notifications/session/{sessionId}", SESSION_ID)
+                        .param("epoch", "other-instance")
+                        .param("afterSequence", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resyncRequired").value(true))
+                .andExpect(jsonPath("$.notifications.length()").value(0));
+    }
+
+    @Test
+    void replaySessionNotifications_ShouldAnswerStompReplay() {
+        String epoch = sendSessionNotifications(2);
+
+        NotificationReplayDTO fromStart = controller.replaySessionNotifications(SESSION_ID, null, null);
+        NotificationReplayDTO caughtUp = controller.replaySessionNotifications(SESSION_ID, epoch, 2L);
+        NotificationReplayDTO otherEpoch = controller.replaySessionNotifications(SESSION_ID, "other-instance", 1L);
+
+        assertEquals(List.of(1L, 2L), fromStart.getNotifications().stream().map(NotificationDTO::getSequence).toList());
+        assertFalse(caughtUp.isResyncRequired());
+        assertTrue(caughtUp.getNotifications().isEmpty());
+        assertTrue(otherEpoch.isResyncRequired());
+    }
+
+    /**
+     * Sends through the broker template like the dispatcher does; returns the epoch the clients saw.
+     */
+    private String sendSessionNotifications(int count) {
+        for (int i = 1; i <= count; i++) {
+            notificationService.sendSessionNotification(SESSION_ID, NotificationDTO.systemAnnouncement("Test", "message " + i));
+        }
+        ArgumentCaptor<NotificationDTO> broadcast = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(messagingTemplate, times(count)).convertAndSend(eq("/topic/session/" + SESSION_ID), broadcast.capture(), anyMap());
+        assertEquals(count, broadcast.getValue().getSequence());
+        return broadcast.getValue().getEpoch();
+    }
+}
@@ -0,0 +1,361 @@
+package com.capgemini.sessionservice.controller;
+
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.common.dto.UserDTO;
+import com.capgemini.common.exception.BusinessException;
+import com.capgemini.sessionservice.client.UserServiceClient;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.exception.GlobalExceptionHandler;
+import com.capgemini.sessionservice.repository.RestaurantSubmissionRepository;
+import com.capgemini.sessionservice.repository.SessionCounters;
+import com.capgemini.sessionservice.repository.SessionParticipantRepository;
+import com.capgemini.sessionservice.repository.SessionRepository;
+import com.capgemini.sessionservice.service.IdempotencyStore;
+import com.capgemini.sessionservice.service.SessionArchiveService;
+import com.capgemini.sessionservice.service.SessionDtoAssembler;
+import com.capgemini.sessionservice.service.SessionDtoCache;
+import com.capgemini.sessionservice.service.SessionExportService;
+import com.capgemini.sessionservice.service.SessionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs against a real SessionService with mocked repositories, so the test sees
+ * which queries a request needs.
+ */
+@ExtendWith(MockitoExtension.class)
+class SessionControllerTest {
+
+    private static final String SESSION_ID = "session-1";
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private RestaurantSubmissionRepository submissionRepository;
+
+    @Mock
+    private SessionParticipantRepository participantRepository;
+
+    @Mock
+    private SessionDtoAssembler sessionDtoAssembler;
+
+    @Mock
+    private SessionDtoCache sessionDtoCache;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    // Runs the transactional part of a mutation on the request thread
+    private final Scheduler dbScheduler = Schedulers.immediate();
+
+    @Mock
+    private SessionExportService sessionExportService;
+
+    @Mock
+    private SessionArchiveService sessionArchiveService;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    private SessionService sessionService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        sessionService = new SessionService(sessionRepository, submissionRepository, participantRepository,
+                sessionDtoAssembler, sessionDtoCache, userServiceClient, eventPublisher, transactionTemplate, dbScheduler);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new SessionController(sessionService, sessionExportService, sessionArchiveService, idempotencyStore))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void getSession_WhenETagMatchesAndCacheCold_ShouldAnswer304FromVersionQueryOnly() throws Exception {
+        when(sessionRepository.findVersionById(SESSION_ID)).thenReturn(Optional.of(7L));
+
+        mockMvc.perform(get("/api/sessions/{sessionId}", SESSION_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + SESSION_ID + "-v7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(sessionRepository).findVersionById(SESSION_ID);
+        verifyNoMoreInteractions(sessionRepository);
+        verify(sessionDtoCache, never()).get(any(), any());
+        verifyNoInteractions(participantRepository, submissionRepository, sessionDtoAssembler);
+    }
+
+    @Test
+    void getSession_WhenETagStale_ShouldReturnSessionWithCurrentETag() throws Exception {
+        SessionDTO session = new SessionDTO();
+        session.setSessionId(SESSION_ID);
+        session.setVersion(8);
+        when(sessionRepository.findVersionById(SESSION_ID)).thenReturn(Optional.of(8L));
+        when(sessionDtoCache.get(eq(SESSION_ID), any())).thenReturn(session);
+
+        mockMvc.perform(get("/api/sessions/{sessionId}", SESSION_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + SESSION_ID + "-v7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + SESSION_ID + "-v8\""))
+                .andExpect(jsonPath("$.version").value(8));
+    }
+
+    @Test
+    void getSession_WhenSinceVersionOlder_ShouldReturnOnlyTheChanges() throws Exception {
+        Session session = new Session();
+        session.setSessionId(SESSION_ID);
+        session.setVersion(8);
+        when(sessionRepository.findVersionById(SESSION_ID)).thenReturn(Optional.of(8L));
+        when(sessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+        when(participantRepository.findParticipantIdsJoinedAfter(SESSION_ID, 6)).thenReturn(List.of("user-2"));
+        when(submissionRepository.findBySession_SessionIdAndSessionVersionGreaterThan(SESSION_ID, 6))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/api/sessions/{sessionId}", SESSION_ID).param("sinceVersion", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sinceVersion").value(6))
+                .andExpect(jsonPath("$.version").value(8))
+                .andExpect(jsonPath("$.addedParticipantIds[0]").value("user-2"))
+                .andExpect(jsonPath("$.addedSubmissions.length()").value(0));
+        verify(sessionDtoCache, never()).get(any(), any());
+    }
+
+    @Test
+    void getSession_WhenSinceVersionCurrentOrAhead_ShouldAnswer304FromVersionQueryOnly() throws Exception {
+        when(sessionRepository.findVersionById(SESSION_ID)).thenReturn(Optional.of(8L));
+
+        for (String sinceVersion : List.of("8", "9")) {
+            mockMvc.perform(get("/api/sessions/{sessionId}", SESSION_ID).param("sinceVersion", sinceVersion))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"" + SESSION_ID + "-v8\""))
+                    .andExpect(content().string(""));
+        }
+
+        verify(sessionRepository, times(2)).findVersionById(SESSION_ID);
+        verifyNoMoreInteractions(sessionRepository);
+        verifyNoInteractions(participantRepository, submissionRepository, sessionDtoAssembler);
+    }
+
+    @Test
+    void getSession_WhenSinceVersionGivenForUnknownSession_ShouldAnswer404() throws Exception {
+        when(sessionRepository.findVersionById(SESSION_ID)).thenReturn(Optional.empty());
+        when(sessionRepository.findById(SESSION_ID)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/sessions/{sessionId}", SESSION_ID).param("sinceVersion", "0"))
+                .andExpect(status().isNotFound());
+        verifyNoInteractions(participantRepository, submissionRepository);
+    }
+
+    @Test
+    void getSessionSubmissions_WhenETagMatches_ShouldAnswer304WithoutLoadingSubmissions() throws Exception {
+        when(sessionRepository.findVersionById(SESSION_ID)).thenReturn(Optional.of(3L));
+        when(submissionRepository.findPageBySessionId(eq(SESSION_ID), any())).thenReturn(List.of());
+
+        String eTag = mockMvc.perform(get("/api/sessions/{sessionId}/submissions", SESSION_ID).param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(sessionRepository, submissionRepository);
+
+        mockMvc.perform(get("/api/sessions/{sessionId}/submissions", SESSION_ID)
+                        .param("limit", "10")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        verify(sessionRepository).findVersionById(SESSION_ID);
+        verifyNoMoreInteractions(sessionRepository);
+        verifyNoInteractions(submissionRepository);
+
+        // Another page of the same version has its own ETag
+        mockMvc.perform(get("/api/sessions/{sessionId}/submissions", SESSION_ID)
+                        .param("limit", "5")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void exportSessions_ShouldStreamNdjsonOrSseAsync() throws Exception {
+        SessionExportService exportService = new SessionExportService(sessionRepository, sessionDtoAssembler,
+                mock(EntityManager.class), Jackson2ObjectMapperBuilder.json().build(),
+                mock(PlatformTransactionManager.class), 200);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new SessionController(sessionService, exportService, sessionArchiveService, idempotencyStore))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        Session session = new Session();
+        session.setSessionId(SESSION_ID);
+        SessionDTO dto = new SessionDTO();
+        dto.setSessionId(SESSION_ID);
+        when(sessionRepository.streamByStatus(Session.SessionStatus.ENDED))
+                .thenAnswer(invocation -> Stream.of(session, session));
+        when(sessionDtoAssembler.toDTOs(any())).thenReturn(List.of(dto, dto));
+
+        String line = "{\"sessionId\":\"" + SESSION_ID + "\"";
+        String ndjson = perform(get("/api/sessions/export").param("status", "ENDED"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+        String sse = perform(get("/api/sessions/export").param("status", "ENDED").param("format", "SSE"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(2, ndjson.split("\n").length);
+        assertTrue(ndjson.startsWith(line) && ndjson.endsWith("}\n"), ndjson);
+        assertEquals(2, sse.split("\n\n").length);
+        assertTrue(sse.startsWith("data: " + line) && sse.endsWith("}\n\n"), sse);
+    }
+
+    @Test
+    void createSession_WhenKeyReusedWithDifferentBody_ShouldAnswer400InInitiatorScope() throws Exception {
+        when(idempotencyStore.<SessionDTO>execute(eq("create:user-1"), eq("key-1"), any(), any()))
+                .thenReturn(Mono.error(new BusinessException("IDEMPOTENCY_KEY_REUSED", "Idempotency-Key was already used")));
+
+        MvcResult result = mockMvc.perform(post("/api/sessions")
+                        .header(IdempotencyStore.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"invitedUserIds\": [\"user-1\", \"user-2\"]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(userServiceClient);
+    }
+
+    @Test
+    void submitRestaurants_WhenListEmptyOrNameBlank_ShouldAnswer400WithoutRunning() throws Exception {
+        mockMvc.perform(post("/api/sessions/{sessionId}/submit/bulk", SESSION_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"submittedByUserId\": \"user-1\", \"restaurants\": []}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/sessions/{sessionId}/submit/bulk", SESSION_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"submittedByUserId\": \"user-1\", " +
+                                "\"restaurants\": [{\"restaurantName\": \"Pizza\"}, {\"restaurantName\": \" \"}]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(idempotencyStore, userServiceClient);
+    }
+
+    @Test
+    void submitRestaurants_WhenOverLimit_ShouldAnswer400TooManySubmissions() throws Exception {
+        ReflectionTestUtils.setField(sessionService, "maxBulkSubmissions", 1);
+        when(idempotencyStore.execute(eq("submit-bulk:" + SESSION_ID + ":user-1"), isNull(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Mono<?>>>getArgument(3).get());
+
+        MvcResult result = mockMvc.perform(post("/api/sessions/{sessionId}/submit/bulk", SESSION_ID)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"submittedByUserId\": \"user-1\", " +
+                                "\"restaurants\": [{\"restaurantName\": \"Pizza\"}, {\"restaurantName\": \"Sushi\"}]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At most 1 restaurants can be submitted at once"));
+        verifyNoInteractions(userServiceClient, sessionRepository, submissionRepository);
+    }
+
+    @Test
+    void joinAndSubmit_WhenTwoUsersShareIdempotencyKey_ShouldRunForEach() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(new SessionController(sessionService, sessionExportService,
+                        sessionArchiveService, new IdempotencyStore(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10))))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        Session session = new Session();
+        session.setSessionId(SESSION_ID);
+        SessionCounters counters = mock(SessionCounters.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userServiceClient.getUserByIdAsync(any())).thenAnswer(invocation ->
+                Mono.just(new UserDTO(invocation.getArgument(0), invocation.getArgument(0), null, false)));
+        when(sessionRepository.insertParticipant(any(), any())).thenReturn(Optional.of(counters));
+        when(sessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+        when(sessionDtoAssembler.toDTO(session)).thenReturn(new SessionDTO());
+        when(participantRepository.existsBySessionIdAndParticipantId(eq(SESSION_ID), any())).thenReturn(true);
+        when(sessionRepository.insertSubmission(any(), any(), any(), any(), any(), any())).thenReturn(Optional.of(counters));
+
+        for (String userId : List.of("user-1", "user-2")) {
+            // A client-side counter: both users' first request carries key 1
+            perform(post("/api/sessions/{sessionId}/join", SESSION_ID)
+                    .header(IdempotencyStore.HEADER, "1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"userId\": \"" + userId + "\"}"))
+                    .andExpect(status().isOk());
+            perform(post("/api/sessions/{sessionId}/submit", SESSION_ID)
+                    .header(IdempotencyStore.HEADER, "2")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"restaurantName\": \"Pizza\", \"submittedByUserId\": \"" + userId + "\"}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.submittedByUserId").value(userId));
+        }
+
+        verify(sessionRepository).insertParticipant(any(), eq("user-1"));
+        verify(sessionRepository).insertParticipant(any(), eq("user-2"));
+        verify(sessionRepository, times(2)).insertSubmission(any(), any(), any(), any(), any(), any());
+
+        // The same user retrying still gets the first result
+        perform(post("/api/sessions/{sessionId}/join", SESSION_ID)
+                .header(IdempotencyStore.HEADER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\": \"user-1\"}"))
+                .andExpect(status().isOk());
+        verify(sessionRepository, times(2)).insertParticipant(any(), any());
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,160 @@
+package com.capgemini.sessionservice.relay;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.event.NotificationEvent;
+import com.capgemini.sessionservice.service.NotificationCoalescer;
+import com.capgemini.sessionservice.service.NotificationDispatcher;
+import com.capgemini.sessionservice.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two instances (relay plus dispatcher each) sharing one Postgres database.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresNotificationRelayTest {
+
+    // Long enough for a NOTIFY round trip that should not happen
+    private static final Duration QUIET_PERIOD = Duration.ofSeconds(1);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private String channel;
+    private Instance first;
+    private Instance second;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        channel = "relay_test_" + UUID.randomUUID().toString().replace("-", "");
+        first = new Instance("node-1");
+        second = new Instance("node-2");
+        awaitListeners(2);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        first.stop();
+        second.stop();
+    }
+
+    @Test
+    void publish_WhenTwoInstances_ShouldDeliverExactlyOnceOnEach() {
+        NotificationDTO notification = NotificationDTO.systemAnnouncement("Maintenance", "Back in 5 minutes");
+
+        first.dispatcher.onNotificationEvent(NotificationEvent.global(notification));
+
+        verify(first.notificationService, timeout(5000)).sendGlobalNotification(any());
+        verify(second.notificationService, timeout(5000)).sendGlobalNotification(any());
+        verify(first.notificationService, after(QUIET_PERIOD.toMillis()).times(1)).sendGlobalNotification(any());
+        verify(second.notificationService, times(1)).sendGlobalNotification(any());
+
+        // The receiving instance delivers but does not relay again
+        assertEquals(1.0, first.count("notifications.relay.published"));
+        assertEquals(0.0, second.count("notifications.relay.published"));
+        assertEquals(0.0, first.count("notifications.relay.received"));
+        assertEquals(1.0, second.count("notifications.relay.received"));
+        // Its own NOTIFY is skipped by node ID, before the ID dedupe
+        assertEquals(0.0, first.skipped("duplicate"));
+    }
+
+    @Test
+    void publish_WhenSameNotificationRelayedTwice_ShouldDeliverOnce() {
+        NotificationEvent event = NotificationEvent.global(
+                NotificationDTO.systemAnnouncement("Maintenance", "Back in 5 minutes"));
+
+        first.relay.publish(event);
+        first.relay.publish(event);
+
+        verify(second.notificationService, timeout(5000)).sendGlobalNotification(any());
+        verify(second.notificationService, after(QUIET_PERIOD.toMillis()).times(1)).sendGlobalNotification(any());
+        assertEquals(2.0, first.count("notifications.relay.published"));
+        assertEquals(1.0, second.count("notifications.relay.received"));
+        assertEquals(1.0, second.skipped("duplicate"));
+    }
+
+    @Test
+    void publish_WhenPayloadOverNotifyLimit_ShouldDeliverLocallyOnly() {
+        NotificationDTO notification = NotificationDTO.systemAnnouncement("Release notes", "x".repeat(9000));
+
+        assertDoesNotThrow(() -> first.dispatcher.onNotificationEvent(NotificationEvent.global(notification)));
+
+        verify(first.notificationService, timeout(5000)).sendGlobalNotification(notification);
+        verify(second.notificationService, after(QUIET_PERIOD.toMillis()).never()).sendGlobalNotification(any());
+        assertEquals(1.0, first.skipped("oversized"));
+        assertEquals(0.0, first.count("notifications.relay.published"));
+    }
+
+    /**
+     * The listener threads connect asynchronously; NOTIFYs sent before LISTEN are lost.
+     */
+    private void awaitListeners(int expected) throws InterruptedException {
+        JdbcTemplate jdbcTemplate = jdbcTemplate();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            Integer listening = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_stat_activity WHERE query = ?", Integer.class, "LISTEN " + channel);
+            if (listening != null && listening >= expected) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Relay listeners did not start");
+    }
+
+    private static JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+    }
+
+    private class Instance {
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final NotificationService notificationService = mock(NotificationService.class);
+        private final PostgresNotificationRelay relay;
+        private final NotificationDispatcher dispatcher;
+
+        Instance(String nodeId) {
+            DataSourceProperties dataSourceProperties = new DataSourceProperties();
+            dataSourceProperties.setUrl(POSTGRES.getJdbcUrl());
+            dataSourceProperties.setUsername(POSTGRES.getUsername());
+            dataSourceProperties.setPassword(POSTGRES.getPassword());
+
+            relay = new PostgresNotificationRelay(jdbcTemplate(), dataSourceProperties,
+                    Jackson2ObjectMapperBuilder.json().build(), meterRegistry, channel, nodeId, Duration.ofMinutes(1));
+            dispatcher = new NotificationDispatcher(notificationService, mock(NotificationCoalescer.class), relay,
+                    meterRegistry, 1, 100, NotificationDispatcher.OverflowPolicy.BLOCK, Duration.ofMillis(50), false);
+            relay.start();
+        }
+
+        double count(String meter) {
+            return meterRegistry.get(meter).counter().count();
+        }
+
+        double skipped(String reason) {
+            return meterRegistry.get("notifications.relay.skipped").tag("reason", reason).counter().count();
+        }
+
+        void stop() throws InterruptedException {
+            dispatcher.shutdown();
+            relay.stop();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.capgemini.sessionservice.repository;
+
+import com.capgemini.sessionservice.entity.Session;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Flyway migrations and the PostgreSQL-only statements, which the H2 tests cannot run.
+ * Hibernate validates the entities against the migrated schema when the context starts.
+ * Skipped when Docker is not available.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SessionArchiveRepository.class)
+@Testcontainers(disabledWithoutDocker = true)
+class SessionRepositoryPostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    // Tables as ddl-auto: update created them before the migrations existed; participants were
+    // an element collection without a key
+    private static final String HIBERNATE_SCHEMA =
+            "CREATE TABLE legacy.sessions (" +
+            "    session_id VARCHAR(255) NOT NULL PRIMARY KEY," +
+            "    created_at TIMESTAMP(6) NOT NULL," +
+            "    ended_at TIMESTAMP(6)," +
+            "    initiator_user_id VARCHAR(255) NOT NULL," +
+            "    selected_restaurant_id VARCHAR(255) UNIQUE," +
+            "    status VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'ENDED')));" +
+            "CREATE TABLE legacy.restaurant_submissions (" +
+            "    submission_id VARCHAR(255) NOT NULL PRIMARY KEY," +
+            "    address VARCHAR(500)," +
+            "    description VARCHAR(1000)," +
+            "    restaurant_name VARCHAR(200) NOT NULL," +
+            "    submitted_by_user_id VARCHAR(255) NOT NULL," +
+            "    session_id VARCHAR(255) NOT NULL REFERENCES legacy.sessions);" +
+            "ALTER TABLE legacy.sessions ADD FOREIGN KEY (selected_restaurant_id)" +
+            "    REFERENCES legacy.restaurant_submissions;" +
+            "CREATE TABLE legacy.session_participants (" +
+            "    session_id VARCHAR(255) NOT NULL REFERENCES legacy.sessions," +
+            "    participant_id VARCHAR(255));";
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionParticipantRepository participantRepository;
+
+    @Autowired
+    private SessionArchiveRepository archiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void migrations_ShouldKeyParticipantsBySessionAndParticipantOnly() {
+        List<String> keyColumns = jdbcTemplate.queryForList(
+                "SELECT a.attname FROM pg_index i " +
+                "JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = ANY (i.indkey) " +
+                "WHERE i.indrelid = 'session_participants'::regclass AND i.indisprimary " +
+                "ORDER BY array_position(i.indkey, a.attnum)", String.class);
+        Integer uniqueIndexes = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_index WHERE indrelid = 'session_participants'::regclass AND indisunique",
+                Integer.class);
+
+        assertEquals(List.of("session_id", "participant_id"), keyColumns);
+        assertEquals(1, uniqueIndexes);
+    }
+
+    @Test
+    void migrations_ShouldRunInOrderIntoTheServiceHistoryTable() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history_session WHERE success ORDER BY installed_rank", String.class);
+        Integer failed = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM flyway_schema_history_session WHERE NOT success", Integer.class);
+
+        assertEquals(List.of("1", "2", "3", "4"), versions.subList(0, 4));
+        assertEquals(0, failed);
+        // The user service shares the database and keeps its own history
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass('flyway_schema_history')", String.class));
+    }
+
+    @Test
+    void migrations_ShouldCreateTheQueryIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class);
+
+        assertTrue(indexes.containsAll(List.of(
+                "idx_sessions_active_created",
+                "idx_sessions_status_created",
+                "idx_sessions_initiator",
+                "idx_submissions_session_created",
+                "idx_submissions_session_version",
+                "idx_participants_session_version")), indexes.toString());
+    }
+
+    @Test
+    void activeListing_ShouldBeServedByThePartialIndex() {
+        persistSession(Session.SessionStatus.ACTIVE);
+        persistSession(Session.SessionStatus.ENDED);
+        // A handful of rows would be scanned sequentially; only the choice of index is of interest
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT session_id FROM sessions WHERE status = 'ACTIVE' " +
+                "ORDER BY created_at, session_id LIMIT 50", String.class));
+
+        assertTrue(plan.contains("idx_sessions_active_created"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @Test
+    void insertIfAbsent_WhenAlreadyJoined_ShouldInsertNothing() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE);
+        UUID sessionId = UUID.fromString(session.getSessionId());
+
+        assertEquals(1, participantRepository.insertIfAbsent(sessionId, "user-1", 1));
+        assertEquals(1, participantRepository.insertIfAbsent(sessionId, "user-2", 2));
+        assertEquals(0, participantRepository.insertIfAbsent(sessionId, "user-1", 3));
+
+        assertEquals(List.of("user-1", "user-2"), participantRepository.findParticipantIds(session.getSessionId()));
+        assertEquals(List.of("user-2"), participantRepository.findParticipantIdsJoinedAfter(session.getSessionId(), 1));
+    }
+
+    @Test
+    void insertParticipant_ShouldBumpParticipantCountAndVersion() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE);
+        UUID sessionId = UUID.fromString(session.getSessionId());
+
+        SessionCounters first = sessionRepository.insertParticipant(sessionId, "user-1").orElseThrow();
+        SessionCounters second = sessionRepository.insertParticipant(sessionId, "user-2").orElseThrow();
+
+        assertCounters(first, 1, 1, 0);
+        assertCounters(second, 2, 2, 0);
+        assertEquals(List.of("user-2"), participantRepository.findParticipantIdsJoinedAfter(session.getSessionId(), 1));
+    }
+
+    @Test
+    void insertParticipant_WhenAlreadyJoined_ShouldChangeNothing() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE);
+        UUID sessionId = UUID.fromString(session.getSessionId());
+        sessionRepository.insertParticipant(sessionId, "user-1").orElseThrow();
+
+        assertTrue(sessionRepository.insertParticipant(sessionId, "user-1").isEmpty());
+
+        assertEquals(Map.of("version", 1L, "participant_count", 1, "submission_count", 0), counters(sessionId));
+    }
+
+    @Test
+    void insertParticipant_WhenSessionEnded_ShouldInsertNothing() {
+        Session session = persistSession(Session.SessionStatus.ENDED);
+        UUID sessionId = UUID.fromString(session.getSessionId());
+
+        assertTrue(sessionRepository.insertParticipant(sessionId, "user-1").isEmpty());
+        assertTrue(sessionRepository.insertParticipant(UUID.randomUUID(), "user-1").isEmpty());
+
+        assertEquals(List.of(), participantRepository.findParticipantIds(session.getSessionId()));
+        assertEquals(Map.of("version", 0L, "participant_count", 0, "submission_count", 0), counters(sessionId));
+    }
+
+    @Test
+    void insertSubmission_ShouldBumpSubmissionCountAndVersion() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE);
+        UUID sessionId = UUID.fromString(session.getSessionId());
+        sessionRepository.insertParticipant(sessionId, "user-1").orElseThrow();
+        UUID submissionId = UUID.randomUUID();
+
+        SessionCounters submitted = sessionRepository.insertSubmission(
+                sessionId, submissionId, "Pizza", "Main St 1", "Wood-fired", "user-1").orElseThrow();
+
+        assertCounters(submitted, 2, 1, 1);
+        assertEquals(2L, jdbcTemplate.queryForObject(
+                "SELECT session_version FROM restaurant_submissions WHERE submission_id = ?", Long.class, submissionId));
+    }
+
+    @Test
+    void insertSubmission_WhenSessionEnded_ShouldInsertNothing() {
+        Session session = persistSession(Session.SessionStatus.ENDED);
+        UUID sessionId = UUID.fromString(session.getSessionId());
+
+        assertTrue(sessionRepository.insertSubmission(
+                sessionId, UUID.randomUUID(), "Pizza", null, null, "user-1").isEmpty());
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM restaurant_submissions WHERE session_id = ?", Integer.class, sessionId));
+        assertEquals(Map.of("version", 0L, "participant_count", 0, "submission_count", 0), counters(sessionId));
+    }
+
+    @Test
+    void archiveEndedSessions_ShouldReturnTheIdsOfTheMovedSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        Session old = persistSession(Session.SessionStatus.ENDED);
+        old.setEndedAt(now.minusDays(40));
+        Session recent = persistSession(Session.SessionStatus.ENDED);
+        recent.setEndedAt(now.minusDays(1));
+        entityManager.flush();
+        participantRepository.insertIfAbsent(UUID.fromString(old.getSessionId()), "user-1", 1);
+        archiveRepository.createHistoryPartitions(now.minusDays(30));
+
+        List<String> archived = archiveRepository.archiveEndedSessions(now.minusDays(30), 10);
+
+        assertEquals(List.of(old.getSessionId()), archived);
+        assertTrue(sessionRepository.findVersionById(old.getSessionId()).isEmpty());
+        assertTrue(sessionRepository.findVersionById(recent.getSessionId()).isPresent());
+        assertEquals(List.of("user-1"),
+                archiveRepository.findArchivedSession(old.getSessionId()).orElseThrow().getParticipantIds());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void migrations_WhenTablesCreatedByHibernate_ShouldAdoptThem() {
+        String sessionId = UUID.randomUUID().toString();
+        String submissionId = UUID.randomUUID().toString();
+        jdbcTemplate.execute("CREATE SCHEMA legacy");
+        try {
+            jdbcTemplate.execute(HIBERNATE_SCHEMA);
+            jdbcTemplate.update("INSERT INTO legacy.sessions (session_id, created_at, initiator_user_id, status) " +
+                    "VALUES (?, CURRENT_TIMESTAMP, 'user-1', 'ACTIVE')", sessionId);
+            jdbcTemplate.update("INSERT INTO legacy.restaurant_submissions " +
+                    "(submission_id, restaurant_name, submitted_by_user_id, session_id) " +
+                    "VALUES (?, 'Pizza', 'user-1', ?)", submissionId, sessionId);
+            // user-2 joined twice concurrently
+            for (String participantId : List.of("user-1", "user-2", "user-2")) {
+                jdbcTemplate.update("INSERT INTO legacy.session_participants (session_id, participant_id) VALUES (?, ?)",
+                        sessionId, participantId);
+            }
+
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .schemas("legacy")
+                    .table("flyway_schema_history_session")
+                    .baselineOnMigrate(true)
+                    .baselineVersion("0")
+                    .load()
+                    .migrate();
+
+            Map<String, Object> session = jdbcTemplate.queryForMap(
+                    "SELECT participant_count, submission_count, version, last_activity_at, " +
+                    "pg_typeof(session_id)::text AS id_type FROM legacy.sessions");
+            assertEquals(2, session.get("participant_count"));
+            assertEquals(1, session.get("submission_count"));
+            assertEquals(0L, session.get("version"));
+            assertNotNull(session.get("last_activity_at"));
+            assertEquals("uuid", session.get("id_type"));
+            assertEquals(List.of("user-1", "user-2"), jdbcTemplate.queryForList(
+                    "SELECT participant_id FROM legacy.session_participants ORDER BY participant_id", String.class));
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_constraint " +
+                    "WHERE conrelid = 'legacy.session_participants'::regclass AND contype = 'p'", Integer.class));
+        } finally {
+            jdbcTemplate.execute("DROP SCHEMA legacy CASCADE");
+        }
+    }
+
+    private Map<String, Object> counters(UUID sessionId) {
+        return jdbcTemplate.queryForMap(
+                "SELECT version, participant_count, submission_count FROM sessions WHERE session_id = ?", sessionId);
+    }
+
+    private static void assertCounters(SessionCounters counters, long version, int participants, int submissions) {
+        assertEquals(version, counters.getVersion());
+        assertEquals(participants, counters.getParticipantCount());
+        assertEquals(submissions, counters.getSubmissionCount());
+    }
+
+    private Session persistSession(Session.SessionStatus status) {
+        Session session = new Session();
+        session.setInitiatorUserId("user-0");
+        session.setStatus(status);
+        return entityManager.persistAndFlush(session);
+    }
+}
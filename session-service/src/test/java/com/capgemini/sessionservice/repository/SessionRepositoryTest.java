@@ -0,0 +1,101 @@
+package com.capgemini.sessionservice.repository;
+
+import com.capgemini.sessionservice.entity.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        // The migrations are PostgreSQL-specific; the embedded database gets the schema from the entities
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class SessionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Test
+    void claimDeadlineWarning_ShouldSucceedOnlyOnce() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE);
+
+        assertEquals(1, sessionRepository.claimDeadlineWarning(session.getSessionId(), Session.SessionStatus.ACTIVE));
+        // A second instance whose timer fired for the same deadline
+        assertEquals(0, sessionRepository.claimDeadlineWarning(session.getSessionId(), Session.SessionStatus.ACTIVE));
+
+        entityManager.clear();
+        assertTrue(sessionRepository.findById(session.getSessionId()).orElseThrow().isDeadlineWarningSent());
+    }
+
+    @Test
+    void claimDeadlineWarning_WhenSessionEnded_ShouldNotClaim() {
+        Session session = persistSession(Session.SessionStatus.ENDED);
+
+        assertEquals(0, sessionRepository.claimDeadlineWarning(session.getSessionId(), Session.SessionStatus.ACTIVE));
+    }
+
+    @Test
+    void streamDeadlinesByStatusUntil_ShouldReturnOnlyActiveDeadlinesInTheWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        // Each session gets a deadline three minutes ahead
+        Session soon = persistSession(Session.SessionStatus.ACTIVE);
+        Session later = persistSession(Session.SessionStatus.ACTIVE);
+        later.setDeadline(now.plusHours(1));
+        persistSession(Session.SessionStatus.ENDED);
+        entityManager.flush();
+
+        try (Stream<SessionDeadline> deadlines =
+                     sessionRepository.streamDeadlinesByStatusUntil(Session.SessionStatus.ACTIVE, now.plusMinutes(10))) {
+            assertEquals(List.of(soon.getSessionId()), deadlines.map(SessionDeadline::getSessionId).toList());
+        }
+    }
+
+    @Test
+    void persist_ShouldAssignTimeOrderedIdsInANativeUuidColumn() throws InterruptedException {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(UUID.fromString(persistSession(Session.SessionStatus.ACTIVE).getSessionId()));
+            Thread.sleep(2);
+        }
+
+        for (UUID id : ids) {
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+        }
+        // The leading 48 bits are the creation time, so later keys sort after earlier ones
+        assertEquals(ids, ids.stream().sorted().toList());
+        assertEquals("UUID", entityManager.getEntityManager().createNativeQuery(
+                        "SELECT data_type FROM information_schema.columns " +
+                        "WHERE table_schema = 'PUBLIC' AND table_name = 'SESSIONS' AND column_name = 'SESSION_ID'")
+                .getSingleResult());
+    }
+
+    @Test
+    void findById_WhenIdMalformed_ShouldFindNothing() {
+        persistSession(Session.SessionStatus.ACTIVE);
+
+        assertTrue(sessionRepository.findById("not-a-uuid").isEmpty());
+        assertTrue(sessionRepository.findVersionById("not-a-uuid").isEmpty());
+    }
+
+    private Session persistSession(Session.SessionStatus status) {
+        Session session = new Session();
+        session.setInitiatorUserId("user-0");
+        session.setStatus(status);
+        session.setDeadline(LocalDateTime.now().plusMinutes(3));
+        return entityManager.persistAndFlush(session);
+    }
+}
@@ -0,0 +1,157 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.exception.BusinessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Actions complete through a sink, so each test decides when the first request finishes.
+ */
+class IdempotencyStoreTest {
+
+    private static final String SCOPE = "create:user-1";
+    private static final String KEY = "key-1";
+    private static final Map<String, String> REQUEST = Map.of("invitedUserIds", "user-1,user-2");
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final Sinks.One<String> result = Sinks.one();
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new IdempotencyStore(meterRegistry, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void execute_WhenDuplicateArrivesWhileRunning_ShouldShareOneExecution() throws Exception {
+        CompletableFuture<String> first = store.execute(SCOPE, KEY, REQUEST, this::pending).toFuture();
+        CompletableFuture<String> duplicate = store.execute(SCOPE, KEY, REQUEST, this::pending).toFuture();
+
+        assertFalse(first.isDone());
+        assertFalse(duplicate.isDone());
+        result.tryEmitValue("session-1");
+
+        assertEquals("session-1", first.get(2, TimeUnit.SECONDS));
+        assertEquals("session-1", duplicate.get(2, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(1.0, meterRegistry.get("idempotency.replayed").counter().count());
+
+        // Answered from memory after completion too
+        assertEquals("session-1", store.execute(SCOPE, KEY, REQUEST, this::pending).block());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_WhenActionFails_ShouldFreeKeyForRetry() {
+        CompletableFuture<String> first = store.execute(SCOPE, KEY, REQUEST, this::pending).toFuture();
+        CompletableFuture<String> duplicate = store.execute(SCOPE, KEY, REQUEST, this::pending).toFuture();
+        result.tryEmitError(new IllegalStateException("User Service unavailable"));
+
+        assertThrows(IllegalStateException.class, () -> unwrap(first));
+        assertThrows(IllegalStateException.class, () -> unwrap(duplicate));
+
+        String retried = store.execute(SCOPE, KEY, REQUEST, () -> {
+            executions.incrementAndGet();
+            return Mono.just("session-2");
+        }).block();
+
+        assertEquals("session-2", retried);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_WhenKeyReusedWithDifferentRequest_ShouldRejectWithoutRunning() {
+        store.execute(SCOPE, KEY, REQUEST, this::pending).subscribe();
+
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> store.execute(SCOPE, KEY, Map.of("invitedUserIds", "user-1,user-3"), this::pending).block());
+
+        assertEquals("IDEMPOTENCY_KEY_REUSED", error.getErrorCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_WhenFirstCallerCancels_ShouldCompleteWorkForDuplicates() throws Exception {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Disposable first = store.execute(SCOPE, KEY, REQUEST,
+                () -> pending().doOnCancel(() -> cancelled.set(true))).subscribe();
+
+        first.dispose();
+        CompletableFuture<String> duplicate = store.execute(SCOPE, KEY, REQUEST, this::pending).toFuture();
+        result.tryEmitValue("session-1");
+
+        assertFalse(cancelled.get());
+        assertEquals("session-1", duplicate.get(2, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_WhenSameKeyInOtherScope_ShouldRunSeparately() {
+        store.execute(SCOPE, KEY, REQUEST, this::pending).subscribe();
+
+        String other = store.execute("create:user-2", KEY, REQUEST, () -> Mono.just("session-2")).block();
+
+        assertEquals("session-2", other);
+        assertEquals(0.0, meterRegistry.get("idempotency.replayed").counter().count());
+    }
+
+    @Test
+    void execute_WhenNoKey_ShouldRunEveryTime() {
+        store.execute(SCOPE, null, REQUEST, this::pending).subscribe();
+        store.execute(SCOPE, null, REQUEST, this::pending).subscribe();
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_WhenKeyBlankOrTooLong_ShouldReject() {
+        BusinessException blank = assertThrows(BusinessException.class,
+                () -> store.execute(SCOPE, " ", REQUEST, this::pending).block());
+        BusinessException tooLong = assertThrows(BusinessException.class,
+                () -> store.execute(SCOPE, "k".repeat(256), REQUEST, this::pending).block());
+
+        assertEquals("INVALID_IDEMPOTENCY_KEY", blank.getErrorCode());
+        assertEquals("INVALID_IDEMPOTENCY_KEY", tooLong.getErrorCode());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void executeBlocking_WhenActionThrows_ShouldRethrowAndFreeKey() {
+        assertThrows(IllegalStateException.class, () -> store.executeBlocking(SCOPE, KEY, REQUEST, () -> {
+            throw new IllegalStateException("Session is not active");
+        }));
+
+        assertEquals("session-1", store.executeBlocking(SCOPE, KEY, REQUEST, () -> "session-1"));
+        assertEquals("session-1", store.executeBlocking(SCOPE, KEY, REQUEST, () -> "session-2"));
+    }
+
+    private Mono<String> pending() {
+        executions.incrementAndGet();
+        return result.asMono();
+    }
+
+    private static String unwrap(CompletableFuture<String> future) throws Throwable {
+        try {
+            return future.get(2, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Window timers are captured instead of scheduled, so each test decides when a window closes.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NotificationCoalescerTest {
+
+    private static final String SESSION_ID = "session-1";
+    private static final int MAX_ITEMS = 3;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private final List<Runnable> timers = new ArrayList<>();
+    private final List<ScheduledFuture<?>> timerFutures = new ArrayList<>();
+
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        when(scheduler.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+            timers.add(invocation.getArgument(0));
+            ScheduledFuture<?> future = mock(ScheduledFuture.class);
+            timerFutures.add(future);
+            return future;
+        });
+        coalescer = coalescer(true);
+    }
+
+    @Test
+    void submit_WhenBurstWithinWindow_ShouldSendOneCoalescedNotification() {
+        coalescer.submit(SESSION_ID, NotificationDTO.userJoined(SESSION_ID, "alice", 2));
+        coalescer.submit(SESSION_ID, NotificationDTO.userJoined(SESSION_ID, "bob", 3));
+
+        verify(notificationService, never()).sendSessionNotification(any(), any());
+        assertEquals(1, timers.size());
+        verify(scheduler).schedule(any(Runnable.class), eq(50L), eq(TimeUnit.MILLISECONDS));
+
+        timers.get(0).run();
+
+        NotificationDTO sent = sentNotifications().get(0);
+        assertEquals(NotificationDTO.NotificationType.USER_JOINED, sent.getType());
+        assertEquals(SESSION_ID, sent.getSessionId());
+        assertEquals("/topic/session/" + SESSION_ID, sent.getChannel());
+        assertEquals(NotificationDTO.NotificationPriority.NORMAL, sent.getPriority());
+        assertEquals("2 users joined the session (3 participants)", sent.getMessage());
+        assertEquals(true, sent.getData().get("coalesced"));
+        assertEquals(2, sent.getData().get("count"));
+        assertEquals(3, sent.getData().get("totalParticipants"));
+        List<?> items = (List<?>) sent.getData().get("items");
+        assertEquals("alice", ((Map<?, ?>) items.get(0)).get("username"));
+        assertEquals("bob", ((Map<?, ?>) items.get(1)).get("username"));
+    }
+
+    @Test
+    void submit_WhenSingleNotificationInWindow_ShouldSendItUnchanged() {
+        NotificationDTO joined = NotificationDTO.userJoined(SESSION_ID, "alice", 2);
+        coalescer.submit(SESSION_ID, joined);
+
+        timers.get(0).run();
+
+        assertSame(joined, sentNotifications().get(0));
+    }
+
+    @Test
+    void submit_WhenMaxItemsReached_ShouldFlushAtOnceAndCancelTimer() {
+        for (int i = 1; i <= MAX_ITEMS; i++) {
+            coalescer.submit(SESSION_ID, NotificationDTO.restaurantSubmitted(SESSION_ID, "alice", "R" + i, i));
+        }
+
+        NotificationDTO sent = sentNotifications().get(0);
+        assertEquals(NotificationDTO.NotificationType.RESTAURANT_SUBMITTED, sent.getType());
+        assertEquals(MAX_ITEMS, sent.getData().get("count"));
+        assertEquals(MAX_ITEMS, sent.getData().get("totalSubmissions"));
+        verify(timerFutures.get(0)).cancel(false);
+
+        // A timer that fires anyway must not send the window again
+        timers.get(0).run();
+        verify(notificationService, times(1)).sendSessionNotification(any(), any());
+
+        coalescer.submit(SESSION_ID, NotificationDTO.restaurantSubmitted(SESSION_ID, "alice", "R4", 4));
+        assertEquals(2, timers.size());
+    }
+
+    @Test
+    void submit_WhenNotCoalescible_ShouldFlushPendingWindowsOfSessionFirst() {
+        coalescer.submit(SESSION_ID, NotificationDTO.userJoined(SESSION_ID, "alice", 2));
+        coalescer.submit(SESSION_ID, NotificationDTO.restaurantSubmitted(SESSION_ID, "alice", "Pizza", 1));
+        coalescer.submit("session-2", NotificationDTO.userJoined("session-2", "carol", 2));
+        NotificationDTO ended = NotificationDTO.sessionEnded(SESSION_ID, "Pizza", null);
+
+        coalescer.submit(SESSION_ID, ended);
+
+        List<NotificationDTO> sent = sentNotifications();
+        assertEquals(3, sent.size());
+        assertEquals(NotificationDTO.NotificationType.SESSION_ENDED, sent.get(2).getType());
+        assertTrue(sent.subList(0, 2).stream().allMatch(n -> SESSION_ID.equals(n.getSessionId())));
+        assertEquals(List.of(NotificationDTO.NotificationType.USER_JOINED, NotificationDTO.NotificationType.RESTAURANT_SUBMITTED),
+                sent.subList(0, 2).stream().map(NotificationDTO::getType).sorted().toList());
+        verify(notificationService, never()).sendSessionNotification(eq("session-2"), any());
+    }
+
+    @Test
+    void submit_WhenHighPriority_ShouldBypassWindowAfterFlushing() {
+        NotificationDTO joined = NotificationDTO.userJoined(SESSION_ID, "alice", 2);
+        coalescer.submit(SESSION_ID, joined);
+        NotificationDTO urgentJoin = NotificationDTO.userJoined(SESSION_ID, "boss", 3);
+        urgentJoin.setPriority(NotificationDTO.NotificationPriority.HIGH);
+
+        coalescer.submit(SESSION_ID, urgentJoin);
+
+        InOrder inOrder = inOrder(notificationService);
+        inOrder.verify(notificationService).sendSessionNotification(SESSION_ID, joined);
+        inOrder.verify(notificationService).sendSessionNotification(SESSION_ID, urgentJoin);
+        assertEquals(1, timers.size());
+    }
+
+    @Test
+    void submit_WhenAlreadyMerged_ShouldSendItUnchangedAfterFlushing() {
+        NotificationDTO single = NotificationDTO.restaurantSubmitted(SESSION_ID, "alice", "Pizza", 1);
+        coalescer.submit(SESSION_ID, single);
+        NotificationDTO bulk = NotificationDTO.coalesced(SESSION_ID, NotificationDTO.NotificationType.RESTAURANT_SUBMITTED,
+                List.of(NotificationDTO.restaurantSubmitted(SESSION_ID, "bob", "Sushi", 2),
+                        NotificationDTO.restaurantSubmitted(SESSION_ID, "bob", "Tacos", 3)));
+
+        coalescer.submit(SESSION_ID, bulk);
+
+        InOrder inOrder = inOrder(notificationService);
+        inOrder.verify(notificationService).sendSessionNotification(SESSION_ID, single);
+        inOrder.verify(notificationService).sendSessionNotification(SESSION_ID, bulk);
+        assertEquals(1, timers.size());
+    }
+
+    @Test
+    void submit_WhenDisabled_ShouldSendDirectly() {
+        coalescer = coalescer(false);
+        NotificationDTO joined = NotificationDTO.userJoined(SESSION_ID, "alice", 2);
+
+        coalescer.submit(SESSION_ID, joined);
+
+        verify(notificationService).sendSessionNotification(SESSION_ID, joined);
+        assertTrue(timers.isEmpty());
+    }
+
+    private NotificationCoalescer coalescer(boolean enabled) {
+        return new NotificationCoalescer(notificationService, new SimpleMeterRegistry(), enabled,
+                Duration.ofMillis(50), MAX_ITEMS, scheduler);
+    }
+
+    private List<NotificationDTO> sentNotifications() {
+        ArgumentCaptor<NotificationDTO> sent = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(notificationService, atLeastOnce()).sendSessionNotification(any(), sent.capture());
+        return sent.getAllValues();
+    }
+}
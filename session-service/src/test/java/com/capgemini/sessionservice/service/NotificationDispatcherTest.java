@@ -0,0 +1,215 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.event.NotificationEvent;
+import com.capgemini.sessionservice.relay.NotificationRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Overflow policies with a full queue: one worker stuck in a slow fan-out and one queued event.
+ * No policy may hold the publishing thread for longer than the offer timeout.
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    private static final Duration OFFER_TIMEOUT = Duration.ofMillis(100);
+    // Generous upper bound for "did not block"; an unbounded put would never return
+    private static final Duration NOT_STUCK = Duration.ofSeconds(2);
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private NotificationCoalescer notificationCoalescer;
+
+    @Mock
+    private NotificationRelay notificationRelay;
+
+    private final CountDownLatch workerBusy = new CountDownLatch(1);
+    private final CountDownLatch releaseWorker = new CountDownLatch(1);
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        doAnswer(invocation -> {
+            workerBusy.countDown();
+            releaseWorker.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(notificationService).sendGlobalNotification(any());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseWorker.countDown();
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void dropLow_WhenQueueFull_ShouldDropLowAndRejectNormalAfterTimeout() throws Exception {
+        fillQueue(NotificationDispatcher.OverflowPolicy.DROP_LOW);
+
+        assertTimeoutPreemptively(NOT_STUCK, () -> dispatcher.onNotificationEvent(event(NotificationDTO.NotificationPriority.LOW)));
+        assertEquals(1.0, dropped("low-priority"));
+        assertEquals(0.0, dropped("rejected"));
+
+        long waited = timed(() -> dispatcher.onNotificationEvent(event(NotificationDTO.NotificationPriority.HIGH)));
+        assertEquals(1.0, dropped("rejected"));
+        assertTrue(waited >= OFFER_TIMEOUT.toMillis() - 10, "waited " + waited + "ms");
+    }
+
+    @Test
+    void fail_WhenQueueFull_ShouldRejectWithoutWaiting() throws Exception {
+        fillQueue(NotificationDispatcher.OverflowPolicy.FAIL);
+
+        long waited = timed(() -> dispatcher.onNotificationEvent(event(NotificationDTO.NotificationPriority.URGENT)));
+
+        assertEquals(1.0, dropped("rejected"));
+        assertTrue(waited < OFFER_TIMEOUT.toMillis(), "waited " + waited + "ms");
+    }
+
+    @Test
+    void block_WhenQueueFull_ShouldWaitAtMostOfferTimeout() throws Exception {
+        fillQueue(NotificationDispatcher.OverflowPolicy.BLOCK);
+
+        timed(() -> dispatcher.onNotificationEvent(event(NotificationDTO.NotificationPriority.LOW)));
+
+        assertEquals(0.0, dropped("low-priority"));
+        assertEquals(1.0, dropped("rejected"));
+    }
+
+    @Test
+    void block_WhenSpaceFreesUpInTime_ShouldQueueAndDeliver() throws Exception {
+        fillQueue(NotificationDispatcher.OverflowPolicy.BLOCK);
+        reset(notificationService);
+
+        Thread publisher = new Thread(() -> dispatcher.onNotificationEvent(event(NotificationDTO.NotificationPriority.NORMAL)));
+        publisher.start();
+        releaseWorker.countDown();
+        publisher.join(NOT_STUCK.toMillis());
+
+        assertFalse(publisher.isAlive());
+        verify(notificationService, timeout(2000).times(2)).sendGlobalNotification(any());
+        assertEquals(0.0, dropped("rejected"));
+    }
+
+    @Test
+    void block_WhenShutdownWhileWaiting_ShouldDeliverOrRejectButNeverLose() throws Exception {
+        fillQueue(NotificationDispatcher.OverflowPolicy.BLOCK, NOT_STUCK);
+        Thread publisher = new Thread(() -> dispatcher.onNotificationEvent(event(NotificationDTO.NotificationPriority.NORMAL)));
+        publisher.start();
+        awaitWaiting(publisher);
+        Thread stopper = new Thread(() -> {
+            try {
+                dispatcher.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stopper.start();
+        awaitWaiting(stopper);
+
+        releaseWorker.countDown();
+        publisher.join(NOT_STUCK.toMillis());
+        stopper.join(NOT_STUCK.toMillis());
+
+        assertFalse(publisher.isAlive());
+        int delivered = mockingDetails(notificationService).getInvocations().size();
+        assertEquals(3, delivered + (int) dropped("rejected"));
+    }
+
+    @Test
+    void remoteEvent_WhenQueueFull_ShouldNeverWaitOnRelayThread() throws Exception {
+        fillQueue(NotificationDispatcher.OverflowPolicy.BLOCK);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<NotificationEvent>> remoteListener = ArgumentCaptor.forClass(Consumer.class);
+        verify(notificationRelay).onRemoteEvent(remoteListener.capture());
+
+        long waited = timed(() -> remoteListener.getValue().accept(event(NotificationDTO.NotificationPriority.HIGH)));
+
+        assertEquals(1.0, dropped("rejected"));
+        assertTrue(waited < OFFER_TIMEOUT.toMillis(), "waited " + waited + "ms");
+    }
+
+    @Test
+    void onNotificationEvent_ShouldRelayLocalEventsButNotRemoteOnes() throws Exception {
+        dispatcher = dispatcher(NotificationDispatcher.OverflowPolicy.DROP_LOW, 16);
+        reset(notificationService);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<NotificationEvent>> remoteListener = ArgumentCaptor.forClass(Consumer.class);
+        verify(notificationRelay).onRemoteEvent(remoteListener.capture());
+
+        NotificationEvent local = event(NotificationDTO.NotificationPriority.NORMAL);
+        dispatcher.onNotificationEvent(local);
+        remoteListener.getValue().accept(event(NotificationDTO.NotificationPriority.NORMAL));
+
+        verify(notificationService, timeout(2000).times(2)).sendGlobalNotification(any());
+        verify(notificationRelay, times(1)).publish(any());
+        verify(notificationRelay).publish(local);
+    }
+
+    /**
+     * One worker blocked in delivery plus one queued event: the queue of capacity 1 is full.
+     */
+    private void fillQueue(NotificationDispatcher.OverflowPolicy policy) throws InterruptedException {
+        fillQueue(policy, OFFER_TIMEOUT);
+    }
+
+    private void fillQueue(NotificationDispatcher.OverflowPolicy policy, Duration offerTimeout) throws InterruptedException {
+        dispatcher = new NotificationDispatcher(notificationService, notificationCoalescer, notificationRelay,
+                meterRegistry, 1, 1, policy, offerTimeout, false);
+        dispatcher.onNotificationEvent(event(NotificationDTO.NotificationPriority.NORMAL));
+        assertTrue(workerBusy.await(2, TimeUnit.SECONDS));
+        dispatcher.onNotificationEvent(event(NotificationDTO.NotificationPriority.NORMAL));
+        assertEquals(0.0, dropped("rejected"));
+    }
+
+    private NotificationDispatcher dispatcher(NotificationDispatcher.OverflowPolicy policy, int queueCapacity) {
+        return new NotificationDispatcher(notificationService, notificationCoalescer, notificationRelay,
+                meterRegistry, 1, queueCapacity, policy, OFFER_TIMEOUT, false);
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + NOT_STUCK.toNanos();
+        while (thread.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(Thread.State.TIMED_WAITING, thread.getState());
+    }
+
+    private long timed(Runnable publish) {
+        long start = System.nanoTime();
+        assertTimeoutPreemptively(NOT_STUCK, publish::run);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.get("notifications.dispatch.dropped").tag("reason", reason).counter().count();
+    }
+
+    private static NotificationEvent event(NotificationDTO.NotificationPriority priority) {
+        NotificationDTO notification = NotificationDTO.systemAnnouncement("Test", "message");
+        notification.setPriority(priority);
+        return NotificationEvent.global(notification);
+    }
+}
@@ -0,0 +1,78 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each spliced payload must parse to the same JSON as the ObjectMapper writing the
+ * per-recipient notification directly.
+ */
+class NotificationPayloadEncoderTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper nonNullMapper = Jackson2ObjectMapperBuilder.json()
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    @Test
+    void forRecipient_ShouldMatchJacksonOutput() throws Exception {
+        NotificationDTO notification = NotificationDTO.personalInvitation("user-1", "session-1", "alice");
+        notification.setTimestamp(LocalDateTime.of(2024, 5, 1, 12, 30));
+        notification.setData(Map.of("inviter", "alice", "count", 3));
+
+        assertMatchesJackson(objectMapper, notification, "user-2", "/queue/notifications");
+        assertMatchesJackson(nonNullMapper, notification, "user-2", "/queue/notifications");
+    }
+
+    @Test
+    void forRecipient_WhenIdsNeedEscaping_ShouldMatchJacksonOutput() throws Exception {
+        NotificationDTO notification = NotificationDTO.personalInvitation("user-1", "session-1", "alice");
+
+        assertMatchesJackson(objectMapper, notification, "us\"er\\1", "/queue/\"notifications\"");
+        assertMatchesJackson(objectMapper, notification, "ünïcødé\n\t\u0001", "/queue/€");
+    }
+
+    @Test
+    void forRecipient_WhenSharedPartEmpty_ShouldWriteNoLeadingComma() throws Exception {
+        NotificationDTO notification = new NotificationDTO();
+
+        NotificationPayloadEncoder.SharedPayload shared = new NotificationPayloadEncoder(nonNullMapper).encode(notification);
+
+        assertEquals(2, shared.size());
+        assertEquals("{\"userId\":\"user-1\",\"channel\":\"/queue/notifications\"}",
+                new String(shared.forRecipient("user-1", "/queue/notifications")));
+        assertMatchesJackson(nonNullMapper, notification, "user-1", "/queue/notifications");
+    }
+
+    @Test
+    void forRecipient_WhenUserIdOrChannelNull_ShouldMatchJacksonOutput() throws Exception {
+        NotificationDTO notification = NotificationDTO.personalInvitation("user-1", "session-1", "alice");
+
+        assertMatchesJackson(objectMapper, notification, null, "/queue/notifications");
+        assertMatchesJackson(objectMapper, notification, "user-2", null);
+        assertMatchesJackson(objectMapper, notification, null, null);
+        assertMatchesJackson(nonNullMapper, notification, null, "/queue/notifications");
+        assertMatchesJackson(nonNullMapper, notification, "user-2", null);
+        assertMatchesJackson(nonNullMapper, new NotificationDTO(), null, null);
+    }
+
+    private static void assertMatchesJackson(ObjectMapper mapper, NotificationDTO notification,
+                                             String userId, String channel) throws Exception {
+        byte[] payload = new NotificationPayloadEncoder(mapper).encode(notification).forRecipient(userId, channel);
+
+        notification.setUserId(userId);
+        notification.setChannel(channel);
+        byte[] expected = mapper.writeValueAsBytes(notification);
+
+        assertEquals(mapper.readTree(expected), mapper.readTree(payload));
+        assertEquals(expected.length, payload.length);
+    }
+}
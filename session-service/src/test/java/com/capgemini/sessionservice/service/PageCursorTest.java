@@ -0,0 +1,55 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void decode_WhenEncodedCursor_ShouldReturnSamePosition() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2024, 5, 1, 12, 30, 0, 123_456_000),
+                "0b7e7f4e-9f59-4c43-9d4e-2f1b0c6a1d11");
+
+        String token = cursor.encode();
+
+        assertEquals(cursor, PageCursor.decode(token));
+        assertFalse(token.contains("="));
+        assertFalse(token.contains("|"));
+    }
+
+    @Test
+    void decode_WhenWholeSecondTimestamp_ShouldRoundTrip() {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2024, 5, 1, 12, 0), "id-1");
+
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decode_WhenNoCursor_ShouldReturnNull() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+    }
+
+    @Test
+    void decode_WhenGarbled_ShouldThrowInvalidCursor() {
+        for (String token : new String[] {
+                "not base64!",
+                encode("2024-05-01T12:00"),
+                encode("|id-1"),
+                encode("2024-05-01T12:00|"),
+                encode("yesterday|id-1")}) {
+            BusinessException exception = assertThrows(BusinessException.class, () -> PageCursor.decode(token), token);
+            assertEquals("INVALID_CURSOR", exception.getErrorCode());
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.sessionservice.event.SessionChangedEvent;
+import com.capgemini.sessionservice.repository.SessionArchiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionArchiveServiceTest {
+
+    private static final Duration IDLE_AFTER = Duration.ofHours(24);
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private SessionArchiveRepository archiveRepository;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SessionArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        archiveService = new SessionArchiveService(archiveRepository, sessionService, eventPublisher,
+                transactionTemplate, meterRegistry, true, IDLE_AFTER, Duration.ofDays(30), CHUNK_SIZE, 10);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // Archival of ended sessions is not under test here
+        when(archiveRepository.tryLockArchival()).thenReturn(false);
+    }
+
+    @Test
+    void archive_ShouldEndIdleSessionsChunkByChunkThroughSessionService() {
+        when(archiveRepository.lockIdleSessions(any(), any(), eq(CHUNK_SIZE)))
+                .thenReturn(List.of("s-1", "s-2"))
+                .thenReturn(List.of("s-3"));
+        when(sessionService.endIdleSession(any())).thenReturn(true);
+
+        LocalDateTime before = LocalDateTime.now();
+        archiveService.archive();
+
+        verify(sessionService).endIdleSession("s-1");
+        verify(sessionService).endIdleSession("s-2");
+        verify(sessionService).endIdleSession("s-3");
+        // The last chunk was not full, so there is no third one
+        ArgumentCaptor<LocalDateTime> idleBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(archiveRepository, times(2)).lockIdleSessions(idleBefore.capture(), now.capture(), anyInt());
+        assertFalse(idleBefore.getValue().isAfter(before.minus(IDLE_AFTER).plusSeconds(5)));
+        assertFalse(now.getValue().isBefore(before));
+        assertEquals(3.0, meterRegistry.get("sessions.archive.idle-ended").counter().count());
+    }
+
+    @Test
+    void archive_WhenNoIdleSessions_ShouldNotEndAny() {
+        when(archiveRepository.lockIdleSessions(any(), any(), anyInt())).thenReturn(List.of());
+
+        archiveService.archive();
+
+        verifyNoInteractions(sessionService);
+        assertEquals(0.0, meterRegistry.get("sessions.archive.idle-ended").counter().count());
+    }
+
+    @Test
+    void archive_ShouldEvictEachArchivedSessionFromTheCacheOnCommit() {
+        when(archiveRepository.tryLockArchival()).thenReturn(true);
+        when(archiveRepository.archiveEndedSessions(any(), eq(CHUNK_SIZE)))
+                .thenReturn(List.of("s-1", "s-2"))
+                .thenReturn(List.of("s-3"));
+
+        archiveService.archive();
+
+        ArgumentCaptor<SessionChangedEvent> events = ArgumentCaptor.forClass(SessionChangedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertEquals(List.of("s-1", "s-2", "s-3"),
+                events.getAllValues().stream().map(SessionChangedEvent::getSessionId).toList());
+        assertTrue(events.getAllValues().stream().allMatch(event -> event.getSession() == null));
+        assertEquals(3.0, meterRegistry.get("sessions.archive.archived").counter().count());
+    }
+
+    @Test
+    void archive_WhenAnotherInstanceArchives_ShouldEvictNothing() {
+        archiveService.archive();
+
+        verify(archiveRepository, never()).archiveEndedSessions(any(), anyInt());
+        verifyNoInteractions(eventPublisher);
+    }
+}
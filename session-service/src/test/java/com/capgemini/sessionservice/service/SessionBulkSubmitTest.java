@@ -0,0 +1,205 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.RestaurantSubmissionDTO;
+import com.capgemini.common.dto.UserDTO;
+import com.capgemini.common.exception.BusinessException;
+import com.capgemini.common.exception.UnauthorizedException;
+import com.capgemini.sessionservice.client.UserServiceClient;
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.entity.RestaurantSubmission;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.entity.SessionParticipant;
+import com.capgemini.sessionservice.event.NotificationEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Bulk submissions against the JPA mapping, with Hibernate statistics to count the JDBC
+ * statements of the batched inserts.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        // The migrations are PostgreSQL-specific; the embedded database gets the schema from the entities
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "session.bulk-submit.max-items=20"
+})
+@Import({SessionService.class, SessionDtoAssembler.class})
+@RecordApplicationEvents
+class SessionBulkSubmitTest {
+
+    private static final String USER_ID = "user-1";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private SessionDtoCache sessionDtoCache;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    private Statistics statistics;
+
+    @TestConfiguration
+    static class ImmediateDbScheduler {
+        // The test transaction is bound to the test thread; the bulk transaction joins it
+        @Bean
+        Scheduler dbScheduler() {
+            return Schedulers.immediate();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(userServiceClient.getUserByIdAsync(USER_ID))
+                .thenReturn(Mono.just(new UserDTO(USER_ID, "alice", "alice@example.com", true)));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void submitRestaurants_ShouldInsertInBatchesAsOneSessionChange() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE, 1);
+        statistics.clear();
+
+        List<RestaurantSubmissionDTO> submitted = sessionService.submitRestaurants(
+                session.getSessionId(), USER_ID, restaurants(12)).block();
+        entityManager.flush();
+
+        assertEquals(12, submitted.size());
+        assertEquals(12, statistics.getEntityInsertCount());
+        // Session lock, membership check, one batched insert statement and the session update
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                statistics.getPrepareStatementCount() + " statements");
+
+        entityManager.clear();
+        Session updated = entityManager.find(Session.class, session.getSessionId());
+        assertEquals(12, updated.getSubmissionCount());
+        assertEquals(2, updated.getVersion());
+        List<RestaurantSubmission> rows = entityManager.getEntityManager()
+                .createQuery("SELECT r FROM RestaurantSubmission r WHERE r.session.sessionId = :sessionId",
+                        RestaurantSubmission.class)
+                .setParameter("sessionId", session.getSessionId())
+                .getResultList();
+        assertEquals(12, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.getSessionVersion() == 2 && USER_ID.equals(row.getSubmittedByUserId())));
+    }
+
+    @Test
+    void submitRestaurants_ShouldPublishOneMergedNotificationWithRunningTotals() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE, 1);
+        session.setSubmissionCount(3);
+        entityManager.flush();
+
+        sessionService.submitRestaurants(session.getSessionId(), USER_ID, restaurants(2)).block();
+
+        List<NotificationDTO> notifications = sessionNotifications();
+        assertEquals(1, notifications.size());
+        NotificationDTO merged = notifications.get(0);
+        assertEquals(NotificationDTO.NotificationType.RESTAURANT_SUBMITTED, merged.getType());
+        assertEquals(true, merged.getData().get("coalesced"));
+        assertEquals(2, merged.getData().get("count"));
+        assertEquals(5, merged.getData().get("totalSubmissions"));
+        List<?> items = (List<?>) merged.getData().get("items");
+        assertEquals(List.of(4, 5), items.stream().map(item -> ((Map<?, ?>) item).get("totalSubmissions")).toList());
+    }
+
+    @Test
+    void submitRestaurants_WhenSingleRestaurant_ShouldPublishPlainNotification() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE, 1);
+
+        sessionService.submitRestaurants(session.getSessionId(), USER_ID, restaurants(1)).block();
+
+        NotificationDTO notification = sessionNotifications().get(0);
+        assertEquals(NotificationDTO.NotificationType.RESTAURANT_SUBMITTED, notification.getType());
+        assertNull(notification.getData().get("coalesced"));
+        assertEquals("Restaurant 1", notification.getData().get("restaurantName"));
+    }
+
+    @Test
+    void submitRestaurants_WhenTooMany_ShouldRejectBeforeUserLookup() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE, 1);
+
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> sessionService.submitRestaurants(session.getSessionId(), USER_ID, restaurants(21)).block());
+
+        assertEquals("TOO_MANY_SUBMISSIONS", error.getErrorCode());
+        verify(userServiceClient, never()).getUserByIdAsync(any());
+    }
+
+    @Test
+    void submitRestaurants_WhenSessionEndedOrNotJoined_ShouldInsertNothing() {
+        Session ended = persistSession(Session.SessionStatus.ENDED, 1);
+        Session notJoined = persistSession(Session.SessionStatus.ACTIVE, 0);
+
+        BusinessException endedError = assertThrows(BusinessException.class,
+                () -> sessionService.submitRestaurants(ended.getSessionId(), USER_ID, restaurants(2)).block());
+        assertThrows(UnauthorizedException.class,
+                () -> sessionService.submitRestaurants(notJoined.getSessionId(), USER_ID, restaurants(2)).block());
+
+        assertEquals("SESSION_ENDED", endedError.getErrorCode());
+        assertEquals(0L, entityManager.getEntityManager()
+                .createQuery("SELECT count(r) FROM RestaurantSubmission r", Long.class)
+                .getSingleResult());
+        assertEquals(0, events.stream(NotificationEvent.class).count());
+    }
+
+    private List<NotificationDTO> sessionNotifications() {
+        return events.stream(NotificationEvent.class)
+                .map(NotificationEvent::getNotification)
+                .toList();
+    }
+
+    private Session persistSession(Session.SessionStatus status, int participants) {
+        Session session = new Session();
+        session.setInitiatorUserId(USER_ID);
+        session.setStatus(status);
+        session.setParticipantCount(participants);
+        session.nextVersion();
+        session = entityManager.persistAndFlush(session);
+        if (participants > 0) {
+            entityManager.persistAndFlush(new SessionParticipant(session.getSessionId(), USER_ID, 1, null));
+        }
+        return session;
+    }
+
+    private static List<RestaurantSubmissionDTO> restaurants(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> new RestaurantSubmissionDTO(null, "Restaurant " + i, "Street " + i, null, null, null))
+                .toList();
+    }
+}
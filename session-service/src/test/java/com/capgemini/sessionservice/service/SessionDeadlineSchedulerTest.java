@@ -0,0 +1,178 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.event.SessionChangedEvent;
+import com.capgemini.sessionservice.repository.SessionDeadline;
+import com.capgemini.sessionservice.repository.SessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the timing wheel with a 10ms tick; the DB scheduler runs the work on the wheel thread.
+ */
+@ExtendWith(MockitoExtension.class)
+class SessionDeadlineSchedulerTest {
+
+    private static final Duration WARNING_BEFORE = Duration.ofMillis(400);
+    private static final Duration RESCAN_INTERVAL = Duration.ofMinutes(1);
+    // Longer than any timer in these tests, including one tick of lateness
+    private static final long FIRES_WITHIN = 3000;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SessionDeadlineScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new SessionDeadlineScheduler(sessionService, sessionRepository, transactionManager,
+                Schedulers.immediate(), meterRegistry, WARNING_BEFORE, Duration.ofMillis(10), 64, RESCAN_INTERVAL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void reloadDeadlines_ShouldScheduleStoredDeadlinesAfterRestart() {
+        when(sessionRepository.streamDeadlinesByStatus(Session.SessionStatus.ACTIVE)).thenReturn(Stream.of(
+                deadline("overdue", LocalDateTime.now().minusMinutes(1), true),
+                deadline("later", LocalDateTime.now().plusHours(1), false)));
+
+        scheduler.reloadDeadlines();
+
+        verify(sessionService, timeout(FIRES_WITHIN)).endSessionAtDeadline("overdue");
+        verify(sessionService, never()).sendDeadlineWarning(eq("overdue"), any());
+        verify(sessionService, never()).endSessionAtDeadline("later");
+        assertEquals(1.0, pending());
+    }
+
+    @Test
+    void rescanDeadlines_ShouldScheduleDeadlinesOfOtherInstancesOnce() {
+        LocalDateTime later = LocalDateTime.now().plusHours(1);
+        scheduler.onSessionChanged(SessionChangedEvent.updated(session("local", "ACTIVE", later)));
+        when(sessionRepository.streamDeadlinesByStatusUntil(eq(Session.SessionStatus.ACTIVE), any()))
+                .thenAnswer(invocation -> Stream.of(deadline("local", later, false), deadline("remote", later, false)));
+
+        LocalDateTime before = LocalDateTime.now();
+        scheduler.rescanDeadlines();
+        scheduler.rescanDeadlines();
+
+        assertEquals(2.0, pending());
+        ArgumentCaptor<LocalDateTime> until = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(sessionRepository, times(2)).streamDeadlinesByStatusUntil(any(), until.capture());
+        // Far enough ahead that a warning due before the next scan is already on the wheel
+        assertFalse(until.getValue().isBefore(before.plus(RESCAN_INTERVAL).plus(WARNING_BEFORE)));
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    void rescanDeadlines_WhenDeadlineOfOtherInstanceOverdue_ShouldEndSession() {
+        when(sessionRepository.streamDeadlinesByStatusUntil(eq(Session.SessionStatus.ACTIVE), any()))
+                .thenReturn(Stream.of(deadline("remote", LocalDateTime.now().minusSeconds(1), true)));
+
+        scheduler.rescanDeadlines();
+
+        verify(sessionService, timeout(FIRES_WITHIN)).endSessionAtDeadline("remote");
+        verify(sessionService, never()).sendDeadlineWarning(any(), any());
+        assertEquals(0.0, pending());
+    }
+
+    @Test
+    void onSessionChanged_WhenDeadlineSet_ShouldWarnThenEndOnce() {
+        LocalDateTime deadline = LocalDateTime.now().plusNanos(Duration.ofMillis(600).toNanos());
+
+        scheduler.onSessionChanged(SessionChangedEvent.updated(session("s-1", "ACTIVE", deadline)));
+
+        verify(sessionService, timeout(FIRES_WITHIN)).endSessionAtDeadline("s-1");
+        InOrder inOrder = inOrder(sessionService);
+        inOrder.verify(sessionService).sendDeadlineWarning("s-1", deadline);
+        inOrder.verify(sessionService).endSessionAtDeadline("s-1");
+        verify(sessionService, after(200).times(1)).sendDeadlineWarning(any(), any());
+        verify(sessionService, times(1)).endSessionAtDeadline(any());
+        assertEquals(0.0, pending());
+    }
+
+    @Test
+    void onSessionChanged_WhenSessionEndsAfterWarning_ShouldCancelRearmedDeadline() {
+        LocalDateTime deadline = LocalDateTime.now().plusNanos(Duration.ofMillis(700).toNanos());
+        scheduler.onSessionChanged(SessionChangedEvent.updated(session("s-1", "ACTIVE", deadline)));
+        verify(sessionService, timeout(FIRES_WITHIN)).sendDeadlineWarning("s-1", deadline);
+
+        scheduler.onSessionChanged(SessionChangedEvent.updated(session("s-1", "ENDED", deadline)));
+
+        assertEquals(0.0, pending());
+        verify(sessionService, after(1000).never()).endSessionAtDeadline(any());
+    }
+
+    @Test
+    void onSessionChanged_WhenOnlyInvalidatedOrRepeated_ShouldKeepOneTimer() {
+        LocalDateTime deadline = LocalDateTime.now().plusHours(1);
+
+        scheduler.onSessionChanged(SessionChangedEvent.updated(session("s-1", "ACTIVE", deadline)));
+        scheduler.onSessionChanged(SessionChangedEvent.updated(session("s-1", "ACTIVE", deadline)));
+        scheduler.onSessionChanged(SessionChangedEvent.invalidated("s-1"));
+        scheduler.onSessionChanged(SessionChangedEvent.updated(session("s-2", "ACTIVE", null)));
+
+        assertEquals(1.0, pending());
+    }
+
+    private double pending() {
+        return meterRegistry.get("sessions.deadline.pending").gauge().value();
+    }
+
+    private static SessionDTO session(String sessionId, String status, LocalDateTime deadline) {
+        SessionDTO session = new SessionDTO();
+        session.setSessionId(sessionId);
+        session.setStatus(status);
+        session.setDeadline(deadline);
+        return session;
+    }
+
+    private static SessionDeadline deadline(String sessionId, LocalDateTime deadline, boolean warningSent) {
+        return new SessionDeadline() {
+            @Override
+            public String getSessionId() {
+                return sessionId;
+            }
+
+            @Override
+            public LocalDateTime getDeadline() {
+                return deadline;
+            }
+
+            @Override
+            public boolean isDeadlineWarningSent() {
+                return warningSent;
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.sessionservice.entity.RestaurantSubmission;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.entity.SessionParticipant;
+import com.capgemini.sessionservice.repository.SessionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The active session listing must not issue queries per session.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        // The migrations are PostgreSQL-specific; the embedded database gets the schema from the entities
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import(SessionDtoAssembler.class)
+class SessionDtoAssemblerTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionDtoAssembler assembler;
+
+    @Test
+    void activeSessionListingUsesConstantNumberOfStatements() {
+        createActiveSessions(2);
+        long fewSessions = countStatementsForListing(2);
+
+        createActiveSessions(25);
+        long manySessions = countStatementsForListing(27);
+
+        assertEquals(3, fewSessions);
+        assertEquals(fewSessions, manySessions);
+    }
+
+    @Test
+    void singleSessionLoadCanBeMappedWithoutPersistenceContext() {
+        createActiveSessions(1);
+        Session session = sessionRepository.findAll().get(0);
+        RestaurantSubmission selected = entityManager.getEntityManager()
+                .createQuery("SELECT r FROM RestaurantSubmission r", RestaurantSubmission.class)
+                .getResultList().get(0);
+        session.setSelectedRestaurant(selected);
+        entityManager.flush();
+        entityManager.clear();
+
+        Session loaded = sessionRepository.findWithSelectedRestaurantById(session.getSessionId()).orElseThrow();
+        // As in the SessionDtoCache loader, which runs outside any transaction
+        entityManager.clear();
+
+        SessionDTO dto = assembler.toDTO(loaded);
+        assertEquals(selected.getRestaurantName(), dto.getSelectedRestaurant().getRestaurantName());
+        assertEquals(2, dto.getSubmissions().size());
+    }
+
+    private long countStatementsForListing(int expectedSessions) {
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<SessionDTO> sessions = assembler.toDTOs(
+                sessionRepository.findWithSelectedRestaurantByStatus(Session.SessionStatus.ACTIVE, Limit.of(100)));
+
+        assertEquals(expectedSessions, sessions.size());
+        sessions.forEach(session -> {
+            assertEquals(3, session.getParticipantIds().size());
+            assertEquals(2, session.getSubmissions().size());
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createActiveSessions(int count) {
+        for (int i = 0; i < count; i++) {
+            Session session = new Session();
+            session.setInitiatorUserId("user-0");
+            session.setStatus(Session.SessionStatus.ACTIVE);
+            session.setCreatedAt(LocalDateTime.now());
+            session = entityManager.persistAndFlush(session);
+
+            for (int p = 0; p < 3; p++) {
+                entityManager.persist(new SessionParticipant(
+                        session.getSessionId(), "user-" + p, p + 1, LocalDateTime.now()));
+            }
+            for (int r = 0; r < 2; r++) {
+                RestaurantSubmission submission = new RestaurantSubmission();
+                submission.setRestaurantName("Restaurant " + r);
+                submission.setSubmittedByUserId("user-" + r);
+                submission.setSession(session);
+                submission.setSessionVersion(r + 4);
+                entityManager.persist(submission);
+            }
+        }
+    }
+}
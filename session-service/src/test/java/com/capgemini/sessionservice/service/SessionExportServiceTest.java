@@ -0,0 +1,138 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.repository.SessionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Five sessions exported in chunks of two, with the cursor stream and the persistence context
+ * mocked to see when they are closed and cleared.
+ */
+@ExtendWith(MockitoExtension.class)
+class SessionExportServiceTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private SessionDtoAssembler sessionDtoAssembler;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+
+    private SessionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new SessionExportService(sessionRepository, sessionDtoAssembler, entityManager,
+                Jackson2ObjectMapperBuilder.json().build(), transactionManager, 2);
+        when(sessionRepository.streamByStatus(Session.SessionStatus.ACTIVE)).thenReturn(
+                sessions(5).stream().onClose(() -> streamClosed.set(true)));
+        when(sessionDtoAssembler.toDTOs(any())).thenAnswer(invocation -> invocation.<List<Session>>getArgument(0)
+                .stream()
+                .map(session -> {
+                    SessionDTO dto = new SessionDTO();
+                    dto.setSessionId(session.getSessionId());
+                    return dto;
+                })
+                .toList());
+    }
+
+    @Test
+    void export_WhenNdjson_ShouldWriteOneSessionPerLineAndClearPerChunk() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(Session.SessionStatus.ACTIVE, SessionExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith("{\"sessionId\":\"s-" + (i + 1) + "\""), lines[i]);
+        }
+        assertTrue(streamClosed.get());
+
+        InOrder inOrder = inOrder(sessionDtoAssembler, entityManager);
+        for (int chunk = 0; chunk < 3; chunk++) {
+            inOrder.verify(sessionDtoAssembler).toDTOs(any());
+            inOrder.verify(entityManager).clear();
+        }
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void export_WhenSse_ShouldWriteOneEventPerSession() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(Session.SessionStatus.ACTIVE, SessionExportService.Format.SSE, out);
+
+        String[] events = out.toString(StandardCharsets.UTF_8).split("\n\n");
+        assertEquals(5, events.length);
+        assertTrue(events[0].startsWith("data: {\"sessionId\":\"s-1\""), events[0]);
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n\n"));
+    }
+
+    @Test
+    void export_WhenClientDisconnectsMidStream_ShouldCloseCursorAndRethrow() {
+        OutputStream disconnected = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                // The first chunk goes through, the connection is gone for the second
+                if (++written > 4) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        IOException error = assertThrows(IOException.class,
+                () -> exportService.export(Session.SessionStatus.ACTIVE, SessionExportService.Format.NDJSON, disconnected));
+
+        assertEquals("Broken pipe", error.getMessage());
+        assertTrue(streamClosed.get());
+        verify(entityManager, times(1)).clear();
+        verify(sessionDtoAssembler, times(2)).toDTOs(any());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private static List<Session> sessions(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> {
+                    Session session = new Session();
+                    session.setSessionId("s-" + i);
+                    return session;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.CursorPageDTO;
+import com.capgemini.common.dto.RestaurantSubmissionDTO;
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.sessionservice.client.UserServiceClient;
+import com.capgemini.sessionservice.entity.RestaurantSubmission;
+import com.capgemini.sessionservice.entity.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks every keyset page where most rows share one createdAt: no row may be skipped or repeated.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.show-sql=false",
+        // The migrations are PostgreSQL-specific; the embedded database gets the schema from the entities
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({SessionService.class, SessionDtoAssembler.class})
+class SessionPagingTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @MockBean
+    private SessionDtoCache sessionDtoCache;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @MockBean
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private Scheduler dbScheduler;
+
+    @Test
+    void getActiveSessions_WhenTimestampsEqual_ShouldVisitEverySessionOnce() {
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 13; i++) {
+            // Two sessions at the edges sort before and after the tied block
+            LocalDateTime createdAt = i == 0 ? CREATED_AT.minusSeconds(1) : i == 12 ? CREATED_AT.plusSeconds(1) : CREATED_AT;
+            expected.add(persistSession(Session.SessionStatus.ACTIVE, createdAt).getSessionId());
+        }
+        persistSession(Session.SessionStatus.ENDED, CREATED_AT);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> visited = walk(cursor -> sessionService.getActiveSessions(cursor, PAGE_SIZE), SessionDTO::getSessionId);
+
+        assertEquals(expected.size(), visited.size());
+        assertEquals(expected, Set.copyOf(visited));
+    }
+
+    @Test
+    void getSessionSubmissions_WhenTimestampsEqual_ShouldVisitEverySubmissionOnce() {
+        Session session = persistSession(Session.SessionStatus.ACTIVE, CREATED_AT);
+        Session other = persistSession(Session.SessionStatus.ACTIVE, CREATED_AT);
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add(persistSubmission(session, i).getSubmissionId());
+            persistSubmission(other, i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> visited = walk(cursor -> sessionService.getSessionSubmissions(session.getSessionId(), cursor, PAGE_SIZE),
+                RestaurantSubmissionDTO::getSubmissionId);
+
+        assertEquals(expected.size(), visited.size());
+        assertEquals(expected, Set.copyOf(visited));
+    }
+
+    private <T> List<String> walk(Function<String, CursorPageDTO<T>> fetch, Function<T, String> id) {
+        List<String> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageDTO<T> page = fetch.apply(cursor);
+            assertTrue(page.getItems().size() <= PAGE_SIZE);
+            page.getItems().forEach(item -> visited.add(id.apply(item)));
+            cursor = page.getNextCursor();
+            assertTrue(++pages <= 10, "cursor does not advance");
+        } while (cursor != null);
+        return visited;
+    }
+
+    private Session persistSession(Session.SessionStatus status, LocalDateTime createdAt) {
+        Session session = new Session();
+        session.setInitiatorUserId("user-0");
+        session.setStatus(status);
+        session.setCreatedAt(createdAt);
+        return entityManager.persist(session);
+    }
+
+    private RestaurantSubmission persistSubmission(Session session, int i) {
+        RestaurantSubmission submission = new RestaurantSubmission();
+        submission.setRestaurantName("Restaurant " + i);
+        submission.setSubmittedByUserId("user-0");
+        submission.setSession(session);
+        submission.setCreatedAt(CREATED_AT);
+        return entityManager.persist(submission);
+    }
+}
@@ -0,0 +1,128 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.dto.NotificationReplayDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionReplayBufferTest {
+
+    private static final String SESSION_ID = "session-1";
+    private static final int CAPACITY = 4;
+
+    private final List<NotificationDTO> sent = new ArrayList<>();
+    private SessionReplayBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = buffer();
+    }
+
+    @Test
+    void append_ShouldNumberNotificationsOfEachSessionInOrder() {
+        append(buffer, 3);
+        buffer.append("session-2", notification(1), sent::add);
+
+        assertEquals(List.of(1L, 2L, 3L, 1L), sent.stream().map(NotificationDTO::getSequence).toList());
+        assertEquals(sent.get(0).getEpoch(), sent.get(2).getEpoch());
+        assertNotEquals(sent.get(0).getEpoch(), sent.get(3).getEpoch());
+    }
+
+    @Test
+    void replay_WhenSequenceBuffered_ShouldReturnMissedNotificationsInOrder() {
+        append(buffer, 3);
+        String epoch = sent.get(0).getEpoch();
+
+        NotificationReplayDTO replay = buffer.replay(SESSION_ID, epoch, 1);
+
+        assertFalse(replay.isResyncRequired());
+        assertEquals(epoch, replay.getEpoch());
+        assertEquals(3, replay.getLatestSequence());
+        assertEquals(List.of(2L, 3L), sequences(replay));
+        assertTrue(buffer.replay(SESSION_ID, epoch, 3).getNotifications().isEmpty());
+    }
+
+    @Test
+    void replay_WhenRingWrappedAround_ShouldServeOnlyTheLastCapacityNotifications() {
+        append(buffer, 10);
+        String epoch = sent.get(0).getEpoch();
+
+        NotificationReplayDTO lastFour = buffer.replay(SESSION_ID, epoch, 6);
+        assertFalse(lastFour.isResyncRequired());
+        assertEquals(List.of(7L, 8L, 9L, 10L), sequences(lastFour));
+        assertEquals("message 7", lastFour.getNotifications().get(0).getMessage());
+
+        NotificationReplayDTO overwritten = buffer.replay(SESSION_ID, epoch, 5);
+        assertTrue(overwritten.isResyncRequired());
+        assertTrue(overwritten.getNotifications().isEmpty());
+        assertEquals(10, overwritten.getLatestSequence());
+    }
+
+    @Test
+    void replay_WhenSequenceAheadOfBuffer_ShouldRequireResync() {
+        append(buffer, 2);
+
+        assertTrue(buffer.replay(SESSION_ID, sent.get(0).getEpoch(), 3).isResyncRequired());
+    }
+
+    @Test
+    void replay_WhenEpochOfOtherInstance_ShouldRequireResync() {
+        // Both instances see the same notifications but number them independently
+        SessionReplayBuffer otherInstance = buffer();
+        List<NotificationDTO> sentByOther = new ArrayList<>();
+        append(buffer, 3);
+        for (int i = 1; i <= 2; i++) {
+            otherInstance.append(SESSION_ID, notification(i), sentByOther::add);
+        }
+
+        NotificationReplayDTO replay = buffer.replay(SESSION_ID, sentByOther.get(0).getEpoch(), 1);
+
+        assertTrue(replay.isResyncRequired());
+        assertEquals(sent.get(0).getEpoch(), replay.getEpoch());
+        assertTrue(buffer.replay(SESSION_ID, null, 1).isResyncRequired());
+    }
+
+    @Test
+    void replay_WhenNoSequenceYet_ShouldReturnEverythingBuffered() {
+        append(buffer, 2);
+
+        NotificationReplayDTO replay = buffer.replay(SESSION_ID, null, 0);
+
+        assertFalse(replay.isResyncRequired());
+        assertEquals(List.of(1L, 2L), sequences(replay));
+    }
+
+    @Test
+    void replay_WhenSessionNotBuffered_ShouldRequireResyncOnlyForKnownSequences() {
+        assertTrue(buffer.replay(SESSION_ID, "evicted-epoch", 5).isResyncRequired());
+
+        NotificationReplayDTO fresh = buffer.replay(SESSION_ID, null, 0);
+        assertFalse(fresh.isResyncRequired());
+        assertTrue(fresh.getNotifications().isEmpty());
+    }
+
+    private void append(SessionReplayBuffer target, int count) {
+        for (int i = 1; i <= count; i++) {
+            target.append(SESSION_ID, notification(i), sent::add);
+        }
+    }
+
+    private static SessionReplayBuffer buffer() {
+        return new SessionReplayBuffer(new SimpleMeterRegistry(), CAPACITY, 100, Duration.ofHours(2));
+    }
+
+    private static NotificationDTO notification(int i) {
+        return NotificationDTO.systemAnnouncement("Test", "message " + i);
+    }
+
+    private static List<Long> sequences(NotificationReplayDTO replay) {
+        return replay.getNotifications().stream().map(NotificationDTO::getSequence).toList();
+    }
+}
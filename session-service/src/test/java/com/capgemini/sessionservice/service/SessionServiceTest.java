@@ -0,0 +1,408 @@
+package com.capgemini.sessionservice.service;
+
+import com.capgemini.common.dto.CursorPageDTO;
+import com.capgemini.common.dto.RestaurantSubmissionDTO;
+import com.capgemini.common.dto.SessionDTO;
+import com.capgemini.common.dto.SessionDeltaDTO;
+import com.capgemini.common.dto.UserDTO;
+import com.capgemini.common.exception.BusinessException;
+import com.capgemini.common.exception.ResourceNotFoundException;
+import com.capgemini.common.exception.UnauthorizedException;
+import com.capgemini.sessionservice.client.UserServiceClient;
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import com.capgemini.sessionservice.entity.RestaurantSubmission;
+import com.capgemini.sessionservice.entity.Session;
+import com.capgemini.sessionservice.event.NotificationEvent;
+import com.capgemini.sessionservice.event.SessionChangedEvent;
+import com.capgemini.sessionservice.repository.RestaurantSubmissionRepository;
+import com.capgemini.sessionservice.repository.SessionParticipantRepository;
+import com.capgemini.sessionservice.repository.SessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionServiceTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private RestaurantSubmissionRepository submissionRepository;
+
+    @Mock
+    private SessionParticipantRepository participantRepository;
+
+    @Mock
+    private SessionDtoAssembler sessionDtoAssembler;
+
+    @Mock
+    private SessionDtoCache sessionDtoCache;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private Scheduler dbScheduler;
+
+    @InjectMocks
+    private SessionService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sessionService, "defaultPageLimit", 3);
+        ReflectionTestUtils.setField(sessionService, "maxPageLimit", 5);
+    }
+
+    @Test
+    void getActiveSessions_WhenExtraRowReturned_ShouldCutPageAndPointCursorAtLastItem() {
+        List<Session> rows = sessions(4);
+        when(sessionRepository.findWithSelectedRestaurantByStatus(Session.SessionStatus.ACTIVE, Limit.of(4)))
+                .thenReturn(rows);
+        stubSessionDtos();
+
+        CursorPageDTO<SessionDTO> page = sessionService.getActiveSessions(null, null);
+
+        assertEquals(List.of("s-1", "s-2", "s-3"), page.getItems().stream().map(SessionDTO::getSessionId).toList());
+        assertEquals(3, page.getLimit());
+        assertEquals(new PageCursor(CREATED_AT, "s-3"), PageCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getActiveSessions_WhenNoExtraRow_ShouldEndWithoutCursor() {
+        when(sessionRepository.findWithSelectedRestaurantByStatus(Session.SessionStatus.ACTIVE, Limit.of(4)))
+                .thenReturn(sessions(3));
+        stubSessionDtos();
+
+        CursorPageDTO<SessionDTO> page = sessionService.getActiveSessions(null, null);
+
+        assertEquals(3, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getActiveSessions_WhenCursorGiven_ShouldContinueAfterItsPosition() {
+        // Equal createdAt: the ID decides where the next page starts
+        String cursor = new PageCursor(CREATED_AT, "s-3").encode();
+        when(sessionRepository.findWithSelectedRestaurantByStatusAfter(
+                Session.SessionStatus.ACTIVE, CREATED_AT, "s-3", Limit.of(3)))
+                .thenReturn(List.of());
+        when(sessionDtoAssembler.toDTOs(List.of())).thenReturn(List.of());
+
+        CursorPageDTO<SessionDTO> page = sessionService.getActiveSessions(cursor, 2);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(sessionRepository, never()).findWithSelectedRestaurantByStatus(any(), any());
+    }
+
+    @Test
+    void getActiveSessions_WhenLimitAboveMax_ShouldCapIt() {
+        when(sessionRepository.findWithSelectedRestaurantByStatus(Session.SessionStatus.ACTIVE, Limit.of(6)))
+                .thenReturn(List.of());
+        when(sessionDtoAssembler.toDTOs(List.of())).thenReturn(List.of());
+
+        assertEquals(5, sessionService.getActiveSessions(null, 1000).getLimit());
+    }
+
+    @Test
+    void getActiveSessions_WhenLimitBelowOne_ShouldThrowInvalidLimit() {
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> sessionService.getActiveSessions(null, 0));
+
+        assertEquals("INVALID_LIMIT", exception.getErrorCode());
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void getActiveSessions_WhenCursorGarbled_ShouldThrowInvalidCursor() {
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> sessionService.getActiveSessions("garbled!", null));
+
+        assertEquals("INVALID_CURSOR", exception.getErrorCode());
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    void getSessionSubmissions_WhenExtraRowReturned_ShouldReturnCursorOfLastItem() {
+        List<RestaurantSubmission> rows = IntStream.rangeClosed(1, 3).mapToObj(this::submission).toList();
+        when(submissionRepository.findPageBySessionIdAfter("session-1", CREATED_AT, "r-0", Limit.of(3)))
+                .thenReturn(rows);
+        when(sessionDtoAssembler.toSubmissionDTO(any())).thenAnswer(invocation -> {
+            RestaurantSubmissionDTO dto = new RestaurantSubmissionDTO();
+            dto.setSubmissionId(invocation.<RestaurantSubmission>getArgument(0).getSubmissionId());
+            return dto;
+        });
+
+        CursorPageDTO<RestaurantSubmissionDTO> page = sessionService.getSessionSubmissions(
+                "session-1", new PageCursor(CREATED_AT, "r-0").encode(), 2);
+
+        assertEquals(List.of("r-1", "r-2"),
+                page.getItems().stream().map(RestaurantSubmissionDTO::getSubmissionId).toList());
+        assertEquals(new PageCursor(CREATED_AT, "r-2"), PageCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getSessionSubmissions_WhenLimitBelowOneOrCursorGarbled_ShouldRejectRequest() {
+        assertEquals("INVALID_LIMIT", assertThrows(BusinessException.class,
+                () -> sessionService.getSessionSubmissions("session-1", null, -1)).getErrorCode());
+        assertEquals("INVALID_CURSOR", assertThrows(BusinessException.class,
+                () -> sessionService.getSessionSubmissions("session-1", "x", null)).getErrorCode());
+        verifyNoInteractions(submissionRepository);
+    }
+
+    @Test
+    void joinSession_ShouldOpenTransactionOnlyAfterUserLookupAndOnDbScheduler() throws Exception {
+        Scheduler scheduler = Schedulers.newSingle("session-db-test");
+        try {
+            Sinks.One<UserDTO> user = Sinks.one();
+            AtomicReference<String> transactionThread = new AtomicReference<>();
+            SessionDTO joined = new SessionDTO();
+            when(userServiceClient.getUserByIdAsync("user-1")).thenReturn(user.asMono());
+            when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+                transactionThread.set(Thread.currentThread().getName());
+                return joined;
+            });
+
+            CompletableFuture<SessionDTO> result = serviceOn(scheduler).joinSession("s-1", "user-1").toFuture();
+
+            // No transaction (and no connection) while the User Service has not answered
+            verifyNoInteractions(transactionTemplate, sessionRepository, participantRepository);
+            user.tryEmitValue(new UserDTO("user-1", "alice", null, false));
+
+            assertSame(joined, result.get(2, TimeUnit.SECONDS));
+            assertTrue(transactionThread.get().startsWith("session-db-test"), transactionThread.get());
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    void joinSession_WhenUserUnknown_ShouldNotOpenTransaction() {
+        when(userServiceClient.getUserByIdAsync("ghost")).thenReturn(Mono.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> serviceOn(Schedulers.immediate()).joinSession("s-1", "ghost").block());
+        verifyNoInteractions(transactionTemplate, sessionRepository, participantRepository);
+    }
+
+    @Test
+    void createSession_WhenInitiatorNotAllowed_ShouldNotOpenTransaction() {
+        when(userServiceClient.canUserInitiateSessionAsync("user-1")).thenReturn(Mono.just(false));
+        when(userServiceClient.getUsersByIdsAsync(List.of("user-1", "user-2")))
+                .thenReturn(Mono.just(Map.of("user-1", new UserDTO("user-1", "alice", null, false))));
+
+        assertThrows(UnauthorizedException.class, () -> serviceOn(Schedulers.immediate())
+                .createSession("user-1", List.of("user-2"), null).block());
+        verifyNoInteractions(transactionTemplate, sessionRepository, participantRepository);
+    }
+
+    @Test
+    void getSessionChanges_ShouldListOnlyWhatWasAddedAfterSinceVersion() {
+        Session session = session(5);
+        RestaurantSubmission added = submission(4);
+        RestaurantSubmissionDTO addedDto = new RestaurantSubmissionDTO();
+        addedDto.setSubmissionId("r-4");
+        when(sessionRepository.findById("s-1")).thenReturn(Optional.of(session));
+        when(participantRepository.findParticipantIdsJoinedAfter("s-1", 3)).thenReturn(List.of("user-3"));
+        when(submissionRepository.findBySession_SessionIdAndSessionVersionGreaterThan("s-1", 3))
+                .thenReturn(List.of(added));
+        when(sessionDtoAssembler.toSubmissionDTO(added)).thenReturn(addedDto);
+
+        SessionDeltaDTO delta = sessionService.getSessionChanges("s-1", 3);
+
+        assertEquals(3, delta.getSinceVersion());
+        assertEquals(5, delta.getVersion());
+        assertEquals("ACTIVE", delta.getStatus());
+        assertEquals(List.of("user-3"), delta.getAddedParticipantIds());
+        assertEquals(List.of(addedDto), delta.getAddedSubmissions());
+        assertNull(delta.getSelectedRestaurant());
+    }
+
+    @Test
+    void getSessionChanges_WhenSinceVersionCurrentOrAhead_ShouldReturnEmptyDeltaWithoutQueries() {
+        when(sessionRepository.findById("s-1")).thenReturn(Optional.of(session(5)));
+
+        for (long sinceVersion : new long[] {5, 9}) {
+            SessionDeltaDTO delta = sessionService.getSessionChanges("s-1", sinceVersion);
+
+            assertEquals(5, delta.getVersion());
+            assertTrue(delta.getAddedParticipantIds().isEmpty());
+            assertTrue(delta.getAddedSubmissions().isEmpty());
+        }
+        verifyNoInteractions(participantRepository, submissionRepository);
+    }
+
+    @Test
+    void getSessionChanges_WhenSessionUnknown_ShouldThrowNotFound() {
+        when(sessionRepository.findById("s-1")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> sessionService.getSessionChanges("s-1", 0));
+        verifyNoInteractions(participantRepository, submissionRepository);
+    }
+
+    @Test
+    void endIdleSession_WhenSubmissionsExist_ShouldSelectRestaurantAndNotify() {
+        Session session = activeSession();
+        RestaurantSubmission submission = submission(1);
+        submission.setRestaurantName("Pizza");
+        session.getSubmissions().add(submission);
+        SessionDTO endedDto = endedDto();
+        when(sessionRepository.findByIdForUpdate("s-1")).thenReturn(Optional.of(session));
+        when(sessionRepository.save(session)).thenReturn(session);
+        when(participantRepository.findParticipantIds("s-1")).thenReturn(List.of("user-1"));
+        when(sessionDtoAssembler.toDTO(session)).thenReturn(endedDto);
+
+        assertTrue(sessionService.endIdleSession("s-1"));
+
+        assertEquals(Session.SessionStatus.ENDED, session.getStatus());
+        assertSame(submission, session.getSelectedRestaurant());
+        List<Object> events = publishedEvents();
+        assertEquals(NotificationDTO.NotificationType.SESSION_ENDED,
+                ((NotificationEvent) events.get(0)).getNotification().getType());
+        assertEquals("Pizza", ((NotificationEvent) events.get(0)).getNotification().getData().get("restaurantName"));
+        assertSame(endedDto, ((SessionChangedEvent) events.get(events.size() - 1)).getSession());
+    }
+
+    @Test
+    void endIdleSession_WhenNoSubmissions_ShouldEndWithoutSelection() {
+        Session session = activeSession();
+        SessionDTO endedDto = endedDto();
+        when(sessionRepository.findByIdForUpdate("s-1")).thenReturn(Optional.of(session));
+        when(sessionRepository.save(session)).thenReturn(session);
+        when(sessionDtoAssembler.toDTO(session)).thenReturn(endedDto);
+
+        assertTrue(sessionService.endIdleSession("s-1"));
+
+        assertEquals(Session.SessionStatus.ENDED, session.getStatus());
+        assertNull(session.getSelectedRestaurant());
+        List<Object> events = publishedEvents();
+        assertEquals(2, events.size());
+        NotificationDTO notification = ((NotificationEvent) events.get(0)).getNotification();
+        assertEquals(NotificationDTO.NotificationType.SESSION_ENDED, notification.getType());
+        assertEquals("s-1", notification.getSessionId());
+        // The cache and SessionDeadlineScheduler need the ended DTO, not just an invalidation
+        assertSame(endedDto, ((SessionChangedEvent) events.get(1)).getSession());
+    }
+
+    @Test
+    void endIdleSession_WhenAlreadyEnded_ShouldDoNothing() {
+        Session session = activeSession();
+        session.setStatus(Session.SessionStatus.ENDED);
+        when(sessionRepository.findByIdForUpdate("s-1")).thenReturn(Optional.of(session));
+
+        assertFalse(sessionService.endIdleSession("s-1"));
+
+        verify(sessionRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void sendDeadlineWarning_WhenAlreadyClaimed_ShouldNotNotifyAgain() {
+        LocalDateTime deadline = CREATED_AT.plusMinutes(30);
+        when(sessionRepository.claimDeadlineWarning("s-1", Session.SessionStatus.ACTIVE)).thenReturn(1, 0);
+
+        sessionService.sendDeadlineWarning("s-1", deadline);
+        sessionService.sendDeadlineWarning("s-1", deadline);
+
+        NotificationEvent warning = (NotificationEvent) publishedEvents().get(0);
+        assertEquals(NotificationDTO.NotificationType.SESSION_ENDING_SOON, warning.getNotification().getType());
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    private List<Object> publishedEvents() {
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+        return new ArrayList<>(events.getAllValues());
+    }
+
+    private static Session activeSession() {
+        Session session = new Session();
+        session.setSessionId("s-1");
+        session.setStatus(Session.SessionStatus.ACTIVE);
+        session.setCreatedAt(CREATED_AT);
+        return session;
+    }
+
+    private static SessionDTO endedDto() {
+        SessionDTO dto = new SessionDTO();
+        dto.setSessionId("s-1");
+        dto.setStatus(Session.SessionStatus.ENDED.name());
+        return dto;
+    }
+
+    private void stubSessionDtos() {
+        when(sessionDtoAssembler.toDTOs(any())).thenAnswer(invocation -> invocation.<List<Session>>getArgument(0)
+                .stream()
+                .map(session -> {
+                    SessionDTO dto = new SessionDTO();
+                    dto.setSessionId(session.getSessionId());
+                    return dto;
+                })
+                .toList());
+    }
+
+    private static List<Session> sessions(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> {
+                    Session session = new Session();
+                    session.setSessionId("s-" + i);
+                    session.setCreatedAt(CREATED_AT);
+                    return session;
+                })
+                .toList();
+    }
+
+    private SessionService serviceOn(Scheduler scheduler) {
+        return new SessionService(sessionRepository, submissionRepository, participantRepository, sessionDtoAssembler,
+                sessionDtoCache, userServiceClient, eventPublisher, transactionTemplate, scheduler);
+    }
+
+    private static Session session(long version) {
+        Session session = new Session();
+        session.setSessionId("s-1");
+        session.setVersion(version);
+        return session;
+    }
+
+    private RestaurantSubmission submission(int i) {
+        RestaurantSubmission submission = new RestaurantSubmission();
+        submission.setSubmissionId("r-" + i);
+        submission.setCreatedAt(CREATED_AT);
+        return submission;
+    }
+}
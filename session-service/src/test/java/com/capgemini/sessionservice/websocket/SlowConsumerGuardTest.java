@@ -0,0 +1,148 @@
+package com.capgemini.sessionservice.websocket;
+
+import com.capgemini.sessionservice.dto.NotificationDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Backlog thresholds of one connection; the backlog grows with every MESSAGE let through
+ * preSend and shrinks when the decorated session writes a MESSAGE frame.
+ */
+@ExtendWith(MockitoExtension.class)
+class SlowConsumerGuardTest {
+
+    private static final String SESSION_ID = "ws-1";
+    private static final int SHED_THRESHOLD = 2;
+    private static final int DISCONNECT_THRESHOLD = 4;
+
+    @Mock
+    private WebSocketHandler handler;
+
+    @Mock
+    private WebSocketSession session;
+
+    @Mock
+    private MessageChannel channel;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SlowConsumerGuard guard;
+    private WebSocketHandler decorated;
+    private WebSocketSession trackingSession;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(session.getId()).thenReturn(SESSION_ID);
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new SlowConsumerGuard(meterRegistry, SHED_THRESHOLD, DISCONNECT_THRESHOLD);
+
+        decorated = guard.decorate(handler);
+        decorated.afterConnectionEstablished(session);
+        ArgumentCaptor<WebSocketSession> established = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(established.capture());
+        trackingSession = established.getValue();
+    }
+
+    @Test
+    void preSend_WhenBelowShedThreshold_ShouldPassEveryPriority() {
+        assertNotNull(guard.preSend(message(NotificationDTO.NotificationPriority.LOW), channel));
+        assertNotNull(guard.preSend(message(NotificationDTO.NotificationPriority.NORMAL), channel));
+
+        assertEquals(0.0, dropped(NotificationDTO.NotificationPriority.LOW));
+        assertEquals(2.0, meterRegistry.get("websocket.outbound.backlog.max").gauge().value());
+    }
+
+    @Test
+    void preSend_WhenOverShedThreshold_ShouldDropLowAndNormalOnly() {
+        fillBacklog(SHED_THRESHOLD);
+
+        assertNull(guard.preSend(message(NotificationDTO.NotificationPriority.LOW), channel));
+        assertNull(guard.preSend(message(NotificationDTO.NotificationPriority.NORMAL), channel));
+        assertNull(guard.preSend(message(null), channel));
+        assertNotNull(guard.preSend(message(NotificationDTO.NotificationPriority.HIGH), channel));
+        assertNotNull(guard.preSend(message(NotificationDTO.NotificationPriority.URGENT), channel));
+
+        assertEquals(1.0, dropped(NotificationDTO.NotificationPriority.LOW));
+        // No priority header counts as NORMAL
+        assertEquals(2.0, dropped(NotificationDTO.NotificationPriority.NORMAL));
+        assertEquals(0.0, dropped(NotificationDTO.NotificationPriority.HIGH));
+    }
+
+    @Test
+    void preSend_WhenOverDisconnectThreshold_ShouldCloseSessionOnce() throws Exception {
+        fillBacklog(SHED_THRESHOLD);
+        guard.preSend(message(NotificationDTO.NotificationPriority.HIGH), channel);
+        guard.preSend(message(NotificationDTO.NotificationPriority.URGENT), channel);
+
+        assertNull(guard.preSend(message(NotificationDTO.NotificationPriority.URGENT), channel));
+        assertNull(guard.preSend(message(NotificationDTO.NotificationPriority.URGENT), channel));
+
+        verify(session, times(1)).close(CloseStatus.SESSION_NOT_RELIABLE);
+
+        decorated.afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1.0, meterRegistry.get("websocket.outbound.slow-disconnects").counter().count());
+        assertEquals(DISCONNECT_THRESHOLD, meterRegistry.get("websocket.outbound.backlog.high-water").summary().max());
+    }
+
+    @Test
+    void sendMessage_WhenMessageFrameWritten_ShouldShrinkBacklog() throws Exception {
+        fillBacklog(SHED_THRESHOLD);
+
+        trackingSession.sendMessage(new TextMessage("RECEIPT\nreceipt-id:1\n\n\u0000"));
+        assertNull(guard.preSend(message(NotificationDTO.NotificationPriority.LOW), channel));
+
+        trackingSession.sendMessage(new TextMessage("MESSAGE\ndestination:/topic/session/1\n\n{}\u0000"));
+        assertNotNull(guard.preSend(message(NotificationDTO.NotificationPriority.LOW), channel));
+        verify(session, times(2)).sendMessage(any());
+    }
+
+    @Test
+    void preSend_WhenNotTrackedMessage_ShouldPassThrough() {
+        fillBacklog(DISCONNECT_THRESHOLD);
+        SimpMessageHeaderAccessor heartbeat = SimpMessageHeaderAccessor.create(SimpMessageType.HEARTBEAT);
+        heartbeat.setSessionId(SESSION_ID);
+        Message<byte[]> otherType = MessageBuilder.createMessage(new byte[0], heartbeat.getMessageHeaders());
+        SimpMessageHeaderAccessor unknown = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        unknown.setSessionId("ws-unknown");
+        Message<byte[]> otherSession = MessageBuilder.createMessage(new byte[0], unknown.getMessageHeaders());
+
+        assertSame(otherType, guard.preSend(otherType, channel));
+        assertSame(otherSession, guard.preSend(otherSession, channel));
+    }
+
+    private void fillBacklog(int pending) {
+        for (int i = 0; i < pending; i++) {
+            assertNotNull(guard.preSend(message(NotificationDTO.NotificationPriority.URGENT), channel));
+        }
+    }
+
+    private double dropped(NotificationDTO.NotificationPriority priority) {
+        return meterRegistry.get("websocket.outbound.dropped").tag("priority", priority.name()).counter().count();
+    }
+
+    private static Message<byte[]> message(NotificationDTO.NotificationPriority priority) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION_ID);
+        if (priority != null) {
+            accessor.setNativeHeader(SlowConsumerGuard.PRIORITY_HEADER, priority.name());
+        }
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -11,9 +11,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-        import java.util.List;
+        import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
@@ -43,8 +46,33 @@ public class UserController {
     })
     public ResponseEntity<UserDTO> getUserById(
             @Parameter(description = "ID of the user to retrieve")
-            @PathVariable(required = false) String userId) {
-        return ResponseEntity.ok(userService.getUserById(userId));
+            @PathVariable(required = false) String userId,
+            WebRequest request) {
+        UserDTO user = userService.getUserById(userId);
+
+        // Content hash of the fields, so an unchanged user is answered with 304 without serializing it
+        String eTag = DigestUtils.md5DigestAsHex(String.join("|",
+                user.getUserId(),
+                String.valueOf(user.getUsername()),
+                String.valueOf(user.getEmail()),
+                String.valueOf(user.isCanInitiateSession())).getBytes(StandardCharsets.UTF_8));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(user);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Get users by IDs",
+            description = "Retrieve several users in one call. Unknown IDs are omitted from the result")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users found"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs in one batch")
+    })
+    public ResponseEntity<List<UserDTO>> getUsersByIds(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "List of user IDs")
+            @RequestBody List<String> userIds) {
+        return ResponseEntity.ok(userService.getUsersByIds(userIds));
     }
 
     @GetMapping("/username/{username}")
@@ -1,9 +1,14 @@
 package com.capgemini.userservice.entity;
 
+import com.capgemini.common.persistence.TimeOrderedId;
+import com.capgemini.common.persistence.UuidStringJavaType;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "users")
@@ -11,8 +16,11 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
+    // Time-ordered, stored as uuid; still a String in DTOs and URLs
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
     private String userId;
 
     @Column(nullable = false, unique = true)
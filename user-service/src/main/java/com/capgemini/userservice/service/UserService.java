@@ -1,6 +1,7 @@
 package com.capgemini.userservice.service;
 
 import com.capgemini.common.dto.UserDTO;
+import com.capgemini.common.exception.BusinessException;
 import com.capgemini.common.exception.ResourceNotFoundException;
 import com.capgemini.userservice.entity.User;
 import com.capgemini.userservice.repository.UserRepository;
@@ -8,7 +9,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,6 +19,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserService {
 
+    static final int MAX_BATCH_SIZE = 500;
+
     private final UserRepository userRepository;
 
     public List<UserDTO> getAllUsers() {
@@ -30,6 +35,26 @@ public class UserService {
         return convertToDTO(user);
     }
 
+    /**
+     * Resolves a list of user IDs with a single query.
+     * Unknown IDs are left out of the result instead of failing the whole batch.
+     */
+    public List<UserDTO> getUsersByIds(List<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> distinctIds = new LinkedHashSet<>(userIds);
+        if (distinctIds.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException("BATCH_TOO_LARGE",
+                    "A batch lookup may contain at most " + MAX_BATCH_SIZE + " user IDs");
+        }
+
+        return userRepository.findAllById(distinctIds).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     public UserDTO getUserByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: ", username));//new RuntimeException("User not found: " + username));
@@ -0,0 +1,23 @@
+-- User Service schema as previously created by ddl-auto: update.
+-- Every statement is idempotent so that databases created by Hibernate are adopted as they are.
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id              VARCHAR(255) NOT NULL PRIMARY KEY,
+    username             VARCHAR(255) NOT NULL,
+    email                VARCHAR(255) NOT NULL,
+    can_initiate_session BOOLEAN      NOT NULL
+);
+
+-- findByUsername / findByEmail; Hibernate-created tables already have unique constraints
+-- (under generated names) on both columns, so only add them where they are missing
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes
+                   WHERE tablename = 'users' AND indexdef LIKE '%UNIQUE%(username)') THEN
+        ALTER TABLE users ADD CONSTRAINT uk_users_username UNIQUE (username);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes
+                   WHERE tablename = 'users' AND indexdef LIKE '%UNIQUE%(email)') THEN
+        ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email);
+    END IF;
+END $$;
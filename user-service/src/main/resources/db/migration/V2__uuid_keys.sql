@@ -0,0 +1,4 @@
+-- user_id becomes a native uuid column (16 bytes instead of a 36+ byte string).
+-- Existing values were generated as UUID strings and convert as they are. Rewrites the table.
+ALTER TABLE users
+    ALTER COLUMN user_id TYPE UUID USING user_id::uuid;
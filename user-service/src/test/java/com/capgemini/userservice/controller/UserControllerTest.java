@@ -0,0 +1,53 @@
+package com.capgemini.userservice.controller;
+
+import com.capgemini.common.dto.UserDTO;
+import com.capgemini.common.exception.BusinessException;
+import com.capgemini.userservice.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserController.class)
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserService userService;
+
+    @Test
+    void getUsersByIds_ShouldReturnFoundUsers() throws Exception {
+        when(userService.getUsersByIds(List.of("user-1", "ghost")))
+                .thenReturn(List.of(new UserDTO("user-1", "alice", "alice@example.com", true)));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"user-1\",\"ghost\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].userId").value("user-1"));
+    }
+
+    @Test
+    void getUsersByIds_WhenBatchTooLarge_ShouldReturnBadRequest() throws Exception {
+        when(userService.getUsersByIds(List.of("user-1", "user-2")))
+                .thenThrow(new BusinessException("BATCH_TOO_LARGE", "A batch lookup may contain at most 500 user IDs"));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"user-1\",\"user-2\"]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("A batch lookup may contain at most 500 user IDs"));
+    }
+}
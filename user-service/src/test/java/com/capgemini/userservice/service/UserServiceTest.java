@@ -0,0 +1,74 @@
+package com.capgemini.userservice.service;
+
+import com.capgemini.common.dto.UserDTO;
+import com.capgemini.common.exception.BusinessException;
+import com.capgemini.userservice.entity.User;
+import com.capgemini.userservice.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserService userService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getUsersByIds_ShouldQueryDistinctIdsOnceAndOmitUnknownUsers() {
+        when(userRepository.findAllById(any())).thenReturn(List.of(
+                new User("user-1", "alice", "alice@example.com", true)));
+
+        List<UserDTO> users = userService.getUsersByIds(List.of("user-1", "ghost", "user-1"));
+
+        ArgumentCaptor<Iterable<String>> ids = ArgumentCaptor.forClass(Iterable.class);
+        verify(userRepository, times(1)).findAllById(ids.capture());
+        List<String> queried = new ArrayList<>();
+        ids.getValue().forEach(queried::add);
+        assertEquals(List.of("user-1", "ghost"), queried);
+        assertEquals(1, users.size());
+        assertEquals("alice", users.get(0).getUsername());
+    }
+
+    @Test
+    void getUsersByIds_WhenEmpty_ShouldNotQuery() {
+        assertTrue(userService.getUsersByIds(List.of()).isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUsersByIds_WhenMaxBatchSize_ShouldQuery() {
+        when(userRepository.findAllById(any())).thenReturn(List.of());
+
+        userService.getUsersByIds(ids(UserService.MAX_BATCH_SIZE));
+
+        verify(userRepository).findAllById(any());
+    }
+
+    @Test
+    void getUsersByIds_WhenTooManyIds_ShouldRejectBatch() {
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> userService.getUsersByIds(ids(UserService.MAX_BATCH_SIZE + 1)));
+
+        assertEquals("BATCH_TOO_LARGE", exception.getErrorCode());
+        verifyNoInteractions(userRepository);
+    }
+
+    private static List<String> ids(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "user-" + i).toList();
+    }
+}